@@ -0,0 +1,222 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Microbenchmarks de las rutas críticas de reglas, sobre un corpus fijo de posiciones.
+// Mide operaciones por segundo y bytes asignados por operación (contador de asignación por hilo de la JVM).
+//
+// Uso (desde AjedrezJava):
+//   javac -encoding UTF-8 -d out src/*.java bench/*.java
+//   java -cp out BenchmarkReglas                          -> imprime resultados
+//   java -cp out BenchmarkReglas --guardar base.txt       -> guarda una línea base
+//   java -cp out BenchmarkReglas --comparar base.txt [--umbral 15]
+//                                                         -> sale con código 1 si algún caso
+//                                                            pierde más del umbral (%) de rendimiento
+public class BenchmarkReglas {
+
+    // Corpus fijo: medios juegos y finales variados
+    private static final String[] CORPUS = {
+        "r1bq1rk1/pp2bppp/2n1pn2/2pp4/3P4/2PBPN2/PP1N1PPP/R2QK2R w KQ - 0 8",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+        "2r2rk1/pp1bqppp/2n1pn2/3p4/3P4/P1NBPN2/1P3PPP/2RQ1RK1 b - - 3 14",
+        "r2q1rk1/1b1nbppp/p2ppn2/1p6/3NP3/1BN1BP2/PPPQ2PP/2KR3R w - - 2 12",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "8/5pk1/6p1/8/3R4/6P1/5PK1/2r5 w - - 0 40",
+        "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 50",
+        "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 30",
+        "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1",
+        "rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2",
+        "r1b2rk1/2q1bppp/p2ppn2/1p6/3BPP2/2N2B2/PPPQ2PP/2KR3R b - - 2 13",
+        "8/8/8/4k3/8/2K5/3Q4/8 b - - 0 60",
+    };
+
+    private static final int ITERACIONES_CALENTAMIENTO = 5;
+    private static final int ITERACIONES_MEDICION = 10;
+    private static final long NANOS_POR_ITERACION = 200_000_000L;
+
+    // Evita que el JIT elimine el trabajo medido
+    private static long sumidero;
+
+    interface Caso {
+        long correr(Posicion pos);
+
+        // Permite limitar un caso a parte del corpus
+        default boolean aplica(Posicion pos) {
+            return true;
+        }
+    }
+
+    static final class Resultado {
+        final double operacionesPorSegundo;
+        final double bytesPorOperacion;
+
+        Resultado(double operacionesPorSegundo, double bytesPorOperacion) {
+            this.operacionesPorSegundo = operacionesPorSegundo;
+            this.bytesPorOperacion = bytesPorOperacion;
+        }
+    }
+
+    private static Map<String, Caso> casos() {
+        Map<String, Caso> casos = new LinkedHashMap<>();
+        int[] lista = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+
+        casos.put("ValidadorMovimiento.esMovimientoValido", pos -> {
+            long validos = 0;
+            long propias = pos.ocupacion(pos.turno());
+            while (propias != 0) {
+                int desde = Long.numberOfTrailingZeros(propias);
+                propias &= propias - 1;
+                for (int hasta = 0; hasta < 64; hasta++) {
+                    if (ValidadorMovimiento.esMovimientoValido(pos, Posicion.fila(desde), Posicion.columna(desde),
+                            Posicion.fila(hasta), Posicion.columna(hasta))) {
+                        validos++;
+                    }
+                }
+            }
+            return validos;
+        });
+        casos.put("ValidadorMovimiento.estaEnJaque", pos ->
+                (ValidadorMovimiento.estaEnJaque(pos, Posicion.BLANCO) ? 1 : 0)
+                        + (ValidadorMovimiento.estaEnJaque(pos, Posicion.NEGRO) ? 1 : 0));
+        casos.put("GeneradorMovimientos.esJaqueMate", pos -> GeneradorMovimientos.esJaqueMate(pos, lista) ? 1 : 0);
+        casos.put("GeneradorMovimientos.generarLegales", pos -> GeneradorMovimientos.generarLegales(pos, lista));
+        casos.put("Evaluacion.evaluar", pos -> Evaluacion.evaluar(pos));
+        // Sucesores de copiarMatriz: copia completa de la posición frente a hacer/deshacer en el lugar
+        casos.put("Posicion.copia", pos -> pos.copia().ocupacion());
+        casos.put("Posicion.hacer+deshacer", pos -> {
+            int n = GeneradorMovimientos.generarLegales(pos, lista);
+            long suma = 0;
+            for (int i = 0; i < n; i++) {
+                pos.hacerMovimiento(lista[i]);
+                suma += pos.ocupacion();
+                pos.deshacerMovimiento();
+            }
+            return suma;
+        });
+        // Solo con negras al turno, como en el juego contra el bot (así la línea base sigue siendo comparable)
+        casos.put("BotFacil.elegir", new Caso() {
+            private final BotFacil bot = new BotFacil();
+
+            public long correr(Posicion pos) {
+                int mov = bot.elegir(pos, ThreadLocalRandom.current());
+                return mov == Movimiento.NINGUNO ? 0 : Posicion.fila(Movimiento.hasta(mov));
+            }
+
+            public boolean aplica(Posicion pos) {
+                return pos.turno() == Posicion.NEGRO;
+            }
+        });
+        return casos;
+    }
+
+    // Corre el caso sobre todo el corpus hasta consumir el tiempo de la iteración
+    private static Resultado medir(Caso caso, Posicion[] corpus) {
+        Posicion[] posiciones = Arrays.stream(corpus).filter(caso::aplica).toArray(Posicion[]::new);
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().getId();
+
+        for (int i = 0; i < ITERACIONES_CALENTAMIENTO; i++) {
+            iterar(caso, posiciones);
+        }
+
+        long operaciones = 0;
+        long nanos = 0;
+        long bytesAntes = hilos.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < ITERACIONES_MEDICION; i++) {
+            long inicio = System.nanoTime();
+            operaciones += iterar(caso, posiciones);
+            nanos += System.nanoTime() - inicio;
+        }
+        long bytes = hilos.getThreadAllocatedBytes(hilo) - bytesAntes;
+        return new Resultado(operaciones / (nanos / 1e9), (double) bytes / operaciones);
+    }
+
+    private static long iterar(Caso caso, Posicion[] posiciones) {
+        long operaciones = 0;
+        long limite = System.nanoTime() + NANOS_POR_ITERACION;
+        while (System.nanoTime() < limite) {
+            for (Posicion pos : posiciones) {
+                sumidero += caso.correr(pos);
+            }
+            operaciones += posiciones.length;
+        }
+        return operaciones;
+    }
+
+    private static Map<String, Double> leerLineaBase(Path archivo) throws IOException {
+        Map<String, Double> base = new LinkedHashMap<>();
+        for (String linea : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+            String[] partes = linea.trim().split("\\s+");
+            if (partes.length >= 2 && !linea.startsWith("#")) {
+                base.put(partes[0], Double.parseDouble(partes[1]));
+            }
+        }
+        return base;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path guardar = null;
+        Path comparar = null;
+        double umbral = 15.0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--guardar": guardar = Paths.get(args[++i]); break;
+                case "--comparar": comparar = Paths.get(args[++i]); break;
+                case "--umbral": umbral = Double.parseDouble(args[++i]); break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        Posicion[] posiciones = new Posicion[CORPUS.length];
+        for (int i = 0; i < CORPUS.length; i++) {
+            posiciones[i] = Posicion.desdeFen(CORPUS[i]);
+        }
+
+        Map<String, Double> base = comparar != null ? leerLineaBase(comparar) : null;
+        List<String> salida = new ArrayList<>();
+        boolean regresion = false;
+
+        System.out.printf("%-42s %16s %14s%n", "Caso", "ops/s", "bytes/op");
+        for (Map.Entry<String, Caso> caso : casos().entrySet()) {
+            Resultado r = medir(caso.getValue(), posiciones);
+            String linea = String.format(Locale.ROOT, "%-42s %16.0f %14.1f", caso.getKey(), r.operacionesPorSegundo, r.bytesPorOperacion);
+            salida.add(String.format(Locale.ROOT, "%s %.0f %.1f", caso.getKey(), r.operacionesPorSegundo, r.bytesPorOperacion));
+
+            if (base != null && base.containsKey(caso.getKey())) {
+                double cambio = (r.operacionesPorSegundo / base.get(caso.getKey()) - 1.0) * 100.0;
+                linea += String.format(Locale.ROOT, "  %+6.1f%%", cambio);
+                if (cambio < -umbral) {
+                    linea += "  REGRESIÓN";
+                    regresion = true;
+                }
+            } else if (base != null) {
+                linea += "  (no está en la línea base)"; // Caso nuevo o renombrado: no se compara
+            }
+            System.out.println(linea);
+        }
+        System.out.println("(sumidero " + (sumidero & 1) + ")");
+
+        if (guardar != null) {
+            salida.add(0, "# caso ops/s bytes/op");
+            Files.write(guardar, salida, StandardCharsets.UTF_8);
+            System.out.println("Línea base guardada en " + guardar);
+        }
+        if (regresion) {
+            System.out.printf(Locale.ROOT, "Rendimiento por debajo del umbral de %.1f%%.%n", umbral);
+            System.exit(1);
+        }
+    }
+}
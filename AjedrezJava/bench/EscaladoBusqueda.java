@@ -0,0 +1,84 @@
+import java.util.Locale;
+
+// Informe de escalado de la búsqueda en varios hilos (Lazy SMP): para cada cantidad de hilos
+// busca cada posición del corpus hasta una profundidad fija con una tabla nueva, y muestra
+// nodos por segundo y tiempo hasta la profundidad, junto con la aceleración respecto de un hilo y
+// la ocupación media de la tabla de transposición al terminar.
+//
+// Uso (desde AjedrezJava):
+//   javac -encoding UTF-8 -d out src/*.java bench/*.java
+//   java -cp out EscaladoBusqueda [--hilos 1,2,4,8,16] [--profundidad 7] [--tt 64]
+//   java -Dajedrez.nulo=false -cp out EscaladoBusqueda --hilos 1   -> tiempo hasta la profundidad sin movimiento nulo
+public class EscaladoBusqueda {
+
+    private static final String[] CORPUS = {
+        Posicion.FEN_INICIAL,
+        "r1bq1rk1/pp2bppp/2n1pn2/2pp4/3P4/2PBPN2/PP1N1PPP/R2QK2R w KQ - 0 8",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+        "2r2rk1/pp1bqppp/2n1pn2/3p4/3P4/P1NBPN2/1P3PPP/2RQ1RK1 b - - 3 14",
+        "8/5pk1/6p1/8/3R4/6P1/5PK1/2r5 w - - 0 40",
+    };
+
+    public static void main(String[] args) {
+        int[] cantidades = {1, 2, 4, 8, 16};
+        int profundidad = 7;
+        int tablaMb = 64;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hilos":
+                    String[] partes = args[++i].split(",");
+                    cantidades = new int[partes.length];
+                    for (int j = 0; j < partes.length; j++) {
+                        cantidades[j] = Integer.parseInt(partes[j].trim());
+                    }
+                    break;
+                case "--profundidad": profundidad = Integer.parseInt(args[++i]); break;
+                case "--tt": tablaMb = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        System.out.printf("Núcleos disponibles: %d  Profundidad: %d  Tabla: %d MB%n",
+                Runtime.getRuntime().availableProcessors(), profundidad, tablaMb);
+        System.out.printf("%6s %14s %12s %12s %12s %10s%n", "Hilos", "Nodos/s", "ms", "x nodos/s", "x tiempo", "Tabla ‰");
+
+        // Calentamiento del JIT para que la primera fila no salga perjudicada
+        ConfiguracionMotor calentamiento = new ConfiguracionMotor();
+        calentamiento.hilos = 1;
+        for (String fen : CORPUS) {
+            new MotorBusqueda(calentamiento).buscar(Posicion.desdeFen(fen), 1000, Long.MAX_VALUE, profundidad - 1);
+        }
+
+        double nps1 = 0;
+        double ms1 = 0;
+        for (int hilos : cantidades) {
+            ConfiguracionMotor config = ConfiguracionMotor.desdePropiedades(); // Respeta -Dajedrez.lmr=false, etc.
+            config.hilos = hilos;
+            config.tablaMb = tablaMb;
+
+            long nodos = 0;
+            long ms = 0;
+            int ocupacion = 0; // Suma del uso de la tabla al terminar cada posición, en tanto por mil
+            for (String fen : CORPUS) {
+                // Motor nuevo por posición: la tabla vacía hace comparable el tiempo hasta la profundidad
+                MotorBusqueda motor = new MotorBusqueda(config);
+                MotorBusqueda.Resultado r = motor.buscar(Posicion.desdeFen(fen), MotorBusqueda.SIN_LIMITE, Long.MAX_VALUE,
+                        profundidad);
+                ocupacion += motor.tabla().ocupacionPorMil();
+                motor.cerrar();
+                nodos += r.nodos;
+                ms += Math.max(r.tiempoMs, 1);
+            }
+            double nps = nodos * 1000.0 / ms;
+            if (nps1 == 0) {
+                nps1 = nps;
+                ms1 = ms;
+            }
+            System.out.printf(Locale.ROOT, "%6d %14.0f %12d %12.2f %12.2f %10d%n", hilos, nps, ms, nps / nps1, ms1 / ms,
+                    ocupacion / CORPUS.length);
+        }
+    }
+}
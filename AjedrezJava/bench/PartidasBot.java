@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Rendimiento de partidas completas sin interfaz: BotFacil contra BotFacil sobre la API de Partida,
+// repartidas entre varios hilos de la misma JVM. Informa partidas/s, jugadas/s y cómo terminaron.
+//
+// Uso (desde AjedrezJava):
+//   javac -encoding UTF-8 -d out src/*.java bench/*.java
+//   java -cp out PartidasBot [--partidas 20000] [--hilos 8] [--max-jugadas 400]
+public class PartidasBot {
+
+    public static void main(String[] args) throws Exception {
+        int partidas = 20000;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int maxJugadas = 400;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--partidas": partidas = Integer.parseInt(args[++i]); break;
+                case "--hilos": hilos = Integer.parseInt(args[++i]); break;
+                case "--max-jugadas": maxJugadas = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        jugar(Math.min(partidas, 2000), 1, maxJugadas); // Calentamiento del JIT
+
+        long inicio = System.nanoTime();
+        long[] totales = jugar(partidas, hilos, maxJugadas);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf("Partidas: %d en %d hilos, %.2f s%n", partidas, hilos, segundos);
+        System.out.printf("Partidas/s: %.0f  Jugadas/s: %.0f  Jugadas por partida: %.1f%n",
+                partidas / segundos, totales[0] / segundos, (double) totales[0] / partidas);
+        for (int motivo = Partida.JAQUE_MATE; motivo < Partida.NOMBRE_MOTIVO.length; motivo++) {
+            if (totales[1 + motivo] > 0) {
+                System.out.printf("  %-36s %d%n", Partida.NOMBRE_MOTIVO[motivo], totales[1 + motivo]);
+            }
+        }
+        if (totales[1] > 0) {
+            System.out.printf("  %-36s %d%n", "límite de jugadas", totales[1]);
+        }
+    }
+
+    // Devuelve {jugadas, sin terminar, y una cuenta por motivo de final}
+    private static long[] jugar(int partidas, int hilos, int maxJugadas) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        List<Future<long[]>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            int cuota = partidas / hilos + (h < partidas % hilos ? 1 : 0);
+            tareas.add(ejecutor.submit(() -> {
+                long[] cuentas = new long[1 + Partida.NOMBRE_MOTIVO.length];
+                BotFacil bot = new BotFacil(); // Buffers propios del hilo
+                for (int i = 0; i < cuota; i++) {
+                    Partida partida = new Partida();
+                    while (!partida.terminada() && partida.cantidadJugadas() < maxJugadas) {
+                        if (!partida.jugar(bot.elegir(partida.posicion(), ThreadLocalRandom.current()))) {
+                            throw new IllegalStateException("BotFacil propuso un movimiento ilegal");
+                        }
+                    }
+                    cuentas[0] += partida.cantidadJugadas();
+                    cuentas[1 + partida.motivo()]++; // Motivo NINGUNO: se llegó al límite de jugadas
+                }
+                return cuentas;
+            }));
+        }
+        long[] totales = new long[1 + Partida.NOMBRE_MOTIVO.length];
+        for (Future<long[]> tarea : tareas) {
+            long[] cuentas = tarea.get();
+            for (int i = 0; i < totales.length; i++) {
+                totales[i] += cuentas[i];
+            }
+        }
+        ejecutor.shutdown();
+        return totales;
+    }
+}
@@ -0,0 +1,321 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Torneo sin interfaz entre dos jugadores (motores con distinta configuración o BotFacil), con
+// varias partidas a la vez en un pool de hilos. Cada apertura se juega dos veces cambiando los
+// colores. Cada partida tiene su semilla (semilla base + número de partida), así que un torneo
+// con límites por nodos se puede repetir exactamente.
+//
+// Muestra cada resultado a medida que termina, la diferencia de Elo de A respecto de B con su
+// intervalo del 95% y el LLR de un SPRT (H0: elo <= elo0, H1: elo >= elo1), que detiene el torneo
+// en cuanto se acepta una de las dos hipótesis.
+//
+// Uso (desde AjedrezJava):
+//   javac -encoding UTF-8 -d out src/*.java bench/*.java
+//   java -cp out Torneo --a "motor,tiempo=50" --b "motor,tiempo=50,lmr=false" [--partidas 2000]
+//        [--concurrencia 8] [--aperturas aperturas.epd] [--semilla 1] [--elo0 0] [--elo1 10]
+//        [--alfa 0.05] [--beta 0.05] [--max-jugadas 400]
+//
+// Jugadores: "facil" (BotFacil) o "motor" seguido de opciones separadas por comas:
+//   tiempo=<ms por jugada>, nodos=<n>, prof=<plies>, tt=<MB>, hilos=<n>, libro=<archivo .bin>,
+//   nulo|lmr|futilidad|extension|aspiracion=<true|false>
+public class Torneo {
+
+    // Posiciones de apertura por defecto (se juegan cada una con ambos colores)
+    private static final String[] APERTURAS = {
+        Posicion.FEN_INICIAL,
+        "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2",
+        "rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2",
+        "rnbqkb1r/pppppppp/5n2/8/3P4/8/PPP1PPPP/RNBQKBNR w KQkq - 1 2",
+        "rnbqkbnr/ppp1pppp/8/3p4/2PP4/8/PP2PPPP/RNBQKBNR b KQkq - 0 2",
+        "rnbqkbnr/pppp1ppp/4p3/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2",
+        "rnbqkbnr/pp1ppppp/2p5/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2",
+        "rnbqkb1r/pppppp1p/5np1/8/2PP4/8/PP2PPPP/RNBQKBNR w KQkq - 0 3",
+    };
+
+    // Un jugador del torneo; cada hilo tiene los suyos
+    private interface Jugador {
+        void nuevaPartida(long semilla);
+
+        int elegir(Partida partida);
+    }
+
+    private static final class JugadorFacil implements Jugador {
+        private final Random aleatorio = new Random();
+        private final BotFacil bot = new BotFacil();
+
+        public void nuevaPartida(long semilla) {
+            aleatorio.setSeed(semilla);
+        }
+
+        public int elegir(Partida partida) {
+            return bot.elegir(partida.posicion(), aleatorio);
+        }
+    }
+
+    private static final class JugadorMotor implements Jugador {
+        private final MotorBusqueda motor;
+        private final long tiempoMs;
+        private final long nodos;
+        private final int profundidad;
+
+        JugadorMotor(ConfiguracionMotor config, long tiempoMs, long nodos, int profundidad) {
+            this.motor = new MotorBusqueda(config);
+            this.tiempoMs = tiempoMs;
+            this.nodos = nodos;
+            this.profundidad = profundidad;
+        }
+
+        public void nuevaPartida(long semilla) {
+            motor.nuevaPartida(); // Sin lo aprendido en la partida anterior: el resultado no depende del hilo
+            motor.semillaLibro(semilla);
+        }
+
+        public int elegir(Partida partida) {
+            return motor.buscar(partida.posicion(), tiempoMs, nodos, profundidad).movimiento;
+        }
+    }
+
+    // Resultados acumulados desde el punto de vista del jugador A
+    private static int ganadas;
+    private static int perdidas;
+    private static int empatadas;
+
+    public static void main(String[] args) throws Exception {
+        String especA = null;
+        String especB = null;
+        int partidas = 2000;
+        int concurrencia = Runtime.getRuntime().availableProcessors();
+        String archivoAperturas = null;
+        long semilla = 1;
+        double elo0 = 0;
+        double elo1 = 10;
+        double alfa = 0.05;
+        double beta = 0.05;
+        int maxJugadas = 400;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--a": especA = args[++i]; break;
+                case "--b": especB = args[++i]; break;
+                case "--partidas": partidas = Integer.parseInt(args[++i]); break;
+                case "--concurrencia": concurrencia = Integer.parseInt(args[++i]); break;
+                case "--aperturas": archivoAperturas = args[++i]; break;
+                case "--semilla": semilla = Long.parseLong(args[++i]); break;
+                case "--elo0": elo0 = Double.parseDouble(args[++i]); break;
+                case "--elo1": elo1 = Double.parseDouble(args[++i]); break;
+                case "--alfa": alfa = Double.parseDouble(args[++i]); break;
+                case "--beta": beta = Double.parseDouble(args[++i]); break;
+                case "--max-jugadas": maxJugadas = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (especA == null || especB == null) {
+            System.err.println("Faltan los jugadores: --a <jugador> --b <jugador>");
+            System.exit(2);
+        }
+        crearJugador(especA); // Valida las especificaciones antes de empezar
+        crearJugador(especB);
+
+        List<Posicion> aperturas = cargarAperturas(archivoAperturas);
+        double limiteInferior = Math.log(beta / (1 - alfa));
+        double limiteSuperior = Math.log((1 - beta) / alfa);
+        System.out.printf(Locale.ROOT, "A: %s%nB: %s%nPartidas: %d  Concurrencia: %d  Aperturas: %d  SPRT elo0=%.1f elo1=%.1f LLR [%.2f, %.2f]%n",
+                especA, especB, partidas, concurrencia, aperturas.size(), elo0, elo1, limiteInferior, limiteSuperior);
+
+        final String a = especA;
+        final String b = especB;
+        final long semillaBase = semilla;
+        final int limiteJugadas = maxJugadas;
+        final double e0 = elo0;
+        final double e1 = elo1;
+        AtomicInteger siguiente = new AtomicInteger();
+        ThreadLocal<Jugador[]> jugadores = ThreadLocal.withInitial(() -> new Jugador[]{crearJugador(a), crearJugador(b)});
+        ExecutorService ejecutor = Executors.newFixedThreadPool(concurrencia);
+        long inicio = System.nanoTime();
+        int total = partidas;
+        for (int h = 0; h < concurrencia; h++) {
+            ejecutor.execute(() -> {
+                Jugador[] propios = jugadores.get();
+                int n;
+                while ((n = siguiente.getAndIncrement()) < total) {
+                    Posicion apertura = aperturas.get((n / 2) % aperturas.size());
+                    boolean aConBlancas = n % 2 == 0;
+                    Partida partida = jugarPartida(apertura, propios, aConBlancas, semillaBase + n, limiteJugadas);
+                    double llr = registrar(n, total, partida, aConBlancas, e0, e1);
+                    if (llr <= limiteInferior || llr >= limiteSuperior) {
+                        siguiente.set(total); // SPRT decidido: no se empiezan más partidas
+                    }
+                }
+            });
+        }
+        ejecutor.shutdown();
+        ejecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        double llr = llr(e0, e1);
+        System.out.println();
+        System.out.println(resumen(e0, e1));
+        System.out.printf(Locale.ROOT, "%d partidas en %.1f s (%.1f partidas/s)%n",
+                ganadas + perdidas + empatadas, segundos, (ganadas + perdidas + empatadas) / segundos);
+        if (llr >= limiteSuperior) {
+            System.out.printf(Locale.ROOT, "SPRT: se acepta H1 (A es al menos %.1f Elo más fuerte)%n", e1);
+        } else if (llr <= limiteInferior) {
+            System.out.printf(Locale.ROOT, "SPRT: se acepta H0 (A no llega a %.1f Elo más fuerte)%n", e0);
+        } else {
+            System.out.println("SPRT: sin decidir");
+        }
+    }
+
+    private static Partida jugarPartida(Posicion apertura, Jugador[] propios, boolean aConBlancas, long semilla, int maxJugadas) {
+        Jugador blancas = aConBlancas ? propios[0] : propios[1];
+        Jugador negras = aConBlancas ? propios[1] : propios[0];
+        blancas.nuevaPartida(semilla);
+        negras.nuevaPartida(semilla ^ 0x9E3779B97F4A7C15L);
+        Partida partida = new Partida(apertura);
+        while (!partida.terminada() && partida.cantidadJugadas() < maxJugadas) {
+            Jugador jugador = partida.turno() == Posicion.BLANCO ? blancas : negras;
+            if (!partida.jugar(jugador.elegir(partida))) {
+                partida.rendirse(partida.turno()); // Un movimiento ilegal pierde la partida
+            }
+        }
+        return partida;
+    }
+
+    // Anota el resultado, lo muestra y devuelve el LLR actualizado
+    private static synchronized double registrar(int n, int total, Partida partida, boolean aConBlancas, double elo0, double elo1) {
+        int resultado = partida.resultado();
+        String motivo = partida.terminada() ? Partida.NOMBRE_MOTIVO[partida.motivo()] : "límite de jugadas";
+        if (resultado == Partida.EN_CURSO || resultado == Partida.TABLAS) {
+            empatadas++;
+        } else if ((resultado == Partida.GANAN_BLANCAS) == aConBlancas) {
+            ganadas++;
+        } else {
+            perdidas++;
+        }
+        String texto = resultado == Partida.EN_CURSO ? Partida.NOMBRE_RESULTADO[Partida.TABLAS] : Partida.NOMBRE_RESULTADO[resultado];
+        System.out.printf(Locale.ROOT, "Partida %d/%d  %s  %s (%s, %d jugadas)   %s%n", n + 1, total,
+                aConBlancas ? "A-B" : "B-A", texto, motivo, partida.cantidadJugadas(), resumen(elo0, elo1));
+        return llr(elo0, elo1);
+    }
+
+    private static String resumen(double elo0, double elo1) {
+        int n = ganadas + perdidas + empatadas;
+        double puntos = (ganadas + empatadas / 2.0) / n;
+        double error = 1.96 * Math.sqrt(varianza() / n);
+        double elo = elo(puntos);
+        double eloMenos = elo(puntos - error);
+        double eloMas = elo(puntos + error);
+        return String.format(Locale.ROOT, "+%d -%d =%d  %.1f%%  Elo %+.1f [%+.1f, %+.1f]  LLR %.2f",
+                ganadas, perdidas, empatadas, 100 * puntos, elo, eloMenos, eloMas, llr(elo0, elo1));
+    }
+
+    // Elo equivalente a una puntuación media (modelo logístico)
+    private static double elo(double puntos) {
+        puntos = Math.min(Math.max(puntos, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / puntos - 1);
+    }
+
+    private static double puntosEsperados(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    // Varianza de la puntuación de una partida
+    private static double varianza() {
+        return varianza(ganadas, empatadas, perdidas);
+    }
+
+    private static double varianza(double w, double d, double l) {
+        double n = w + d + l;
+        double s = (w + d / 2) / n;
+        return (w * (1 - s) * (1 - s) + d * (0.5 - s) * (0.5 - s) + l * s * s) / n;
+    }
+
+    // Logaritmo del cociente de verosimilitud de H1 frente a H0 (SPRT generalizado, aproximación normal).
+    // Se suma media partida a cada resultado posible: así la varianza no es cero cuando todas las
+    // partidas terminaron igual (p. ej. un motor que gana siempre) y unas pocas no deciden el test
+    private static double llr(double elo0, double elo1) {
+        if (ganadas + perdidas + empatadas == 0) {
+            return 0;
+        }
+        double w = ganadas + 0.5;
+        double d = empatadas + 0.5;
+        double l = perdidas + 0.5;
+        double n = w + d + l;
+        double s = (w + d / 2) / n;
+        double s0 = puntosEsperados(elo0);
+        double s1 = puntosEsperados(elo1);
+        return (s1 - s0) * (2 * s - s0 - s1) * n / (2 * varianza(w, d, l));
+    }
+
+    private static Jugador crearJugador(String especificacion) {
+        String[] partes = especificacion.split(",");
+        if (partes[0].trim().equals("facil")) {
+            return new JugadorFacil();
+        }
+        if (!partes[0].trim().equals("motor")) {
+            throw new IllegalArgumentException("Jugador desconocido: " + partes[0]);
+        }
+        ConfiguracionMotor config = new ConfiguracionMotor();
+        config.hilos = 1; // El paralelismo está en jugar varias partidas a la vez
+        long tiempo = MotorBusqueda.TIEMPO_POR_DEFECTO_MS;
+        long nodos = Long.MAX_VALUE;
+        int profundidad = MotorBusqueda.PROFUNDIDAD_MAXIMA;
+        for (int i = 1; i < partes.length; i++) {
+            String[] claveValor = partes[i].trim().split("=", 2);
+            if (claveValor.length != 2) {
+                throw new IllegalArgumentException("Opción sin valor: " + partes[i]);
+            }
+            String valor = claveValor[1];
+            switch (claveValor[0]) {
+                case "tiempo": tiempo = Long.parseLong(valor); break;
+                case "nodos": nodos = Long.parseLong(valor); break;
+                case "prof": profundidad = Integer.parseInt(valor); break;
+                case "tt": config.tablaMb = Integer.parseInt(valor); break;
+                case "hilos": config.hilos = Integer.parseInt(valor); break;
+                case "libro": config.libro = valor; break;
+                case "nulo": config.movimientoNulo = Boolean.parseBoolean(valor); break;
+                case "lmr": config.reduccionesTardias = Boolean.parseBoolean(valor); break;
+                case "futilidad": config.futilidad = Boolean.parseBoolean(valor); break;
+                case "extension": config.extensionJaque = Boolean.parseBoolean(valor); break;
+                case "aspiracion": config.ventanaAspiracion = Boolean.parseBoolean(valor); break;
+                default:
+                    throw new IllegalArgumentException("Opción de motor desconocida: " + claveValor[0]);
+            }
+        }
+        return new JugadorMotor(config, tiempo, nodos, profundidad);
+    }
+
+    // Una posición por línea (FEN o EPD, ver Epd); '#' empieza un comentario
+    private static List<Posicion> cargarAperturas(String archivo) throws IOException {
+        List<Posicion> aperturas = new ArrayList<>();
+        if (archivo == null) {
+            for (String fen : APERTURAS) {
+                aperturas.add(Posicion.desdeFen(fen));
+            }
+            return aperturas;
+        }
+        for (String linea : Files.readAllLines(Paths.get(archivo), StandardCharsets.UTF_8)) {
+            linea = linea.trim();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+            aperturas.add(Epd.leer(linea).posicion()); // FEN o EPD
+        }
+        if (aperturas.isEmpty()) {
+            throw new IllegalArgumentException("No hay aperturas en " + archivo);
+        }
+        return aperturas;
+    }
+}
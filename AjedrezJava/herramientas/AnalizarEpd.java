@@ -0,0 +1,183 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+// Analiza las posiciones de un archivo EPD (o FEN, una por línea) a profundidad, tiempo o nodos
+// fijos. Cada hilo tiene su propio motor de un solo hilo de búsqueda y va tomando la siguiente
+// línea del archivo, así que se usan todos los núcleos y el archivo no se carga entero en memoria.
+// Cada resultado se escribe en cuanto termina (en orden de llegada, no del archivo): la línea EPD
+// original con las operaciones acd (profundidad), acn (nodos), acs (segundos), ce (centipeones
+// para el bando que mueve), dm (mate en n jugadas, si lo hay) y pm (jugada, en SAN).
+// Si las posiciones traen bm o am, al final se cuentan las resueltas.
+//
+// Uso (desde AjedrezJava):
+//   javac -encoding UTF-8 -d out src/*.java herramientas/*.java
+//   java -cp out AnalizarEpd --epd posiciones.epd [--salida resultados.epd] [--hilos 8]
+//                            [--prof 12 | --tiempo 1000 | --nodos 1000000] [--tt 16] [--tablas dir]
+public class AnalizarEpd {
+
+    private static final LongAdder posiciones = new LongAdder();
+    private static final LongAdder invalidas = new LongAdder();
+    private static final LongAdder conSolucion = new LongAdder(); // Posiciones con bm o am
+    private static final LongAdder resueltas = new LongAdder();
+    private static final LongAdder nodos = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        String archivo = null;
+        String salida = null;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int profundidad = -1;
+        long tiempoMs = -1;
+        long maxNodos = -1;
+        int tablaMb = 16;
+        String tablasFinales = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--epd": archivo = args[++i]; break;
+                case "--salida": salida = args[++i]; break;
+                case "--hilos": hilos = Integer.parseInt(args[++i]); break;
+                case "--prof": profundidad = Integer.parseInt(args[++i]); break;
+                case "--tiempo": tiempoMs = Long.parseLong(args[++i]); break;
+                case "--nodos": maxNodos = Long.parseLong(args[++i]); break;
+                case "--tt": tablaMb = Integer.parseInt(args[++i]); break;
+                case "--tablas": tablasFinales = args[++i]; break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (archivo == null) {
+            System.err.println("Uso: AnalizarEpd --epd posiciones.epd [--salida resultados.epd] [--hilos 8] [--prof 12 | --tiempo ms | --nodos n]");
+            System.exit(2);
+        }
+        if (profundidad < 0 && tiempoMs < 0 && maxNodos < 0) {
+            profundidad = 12; // Sin límite pedido, una profundidad fija: resultados reproducibles
+        }
+
+        ConfiguracionMotor config = new ConfiguracionMotor();
+        config.hilos = 1; // El paralelismo está entre posiciones, no dentro de una búsqueda
+        config.tablaMb = tablaMb;
+        config.tablasFinales = tablasFinales;
+        final int prof = profundidad < 0 ? MotorBusqueda.PROFUNDIDAD_MAXIMA : profundidad;
+        final long tiempo = tiempoMs < 0 ? MotorBusqueda.SIN_LIMITE : tiempoMs;
+        final long limiteNodos = maxNodos < 0 ? Long.MAX_VALUE : maxNodos;
+
+        long inicio = System.nanoTime();
+        try (BufferedReader entrada = Files.newBufferedReader(Paths.get(archivo), StandardCharsets.UTF_8);
+             PrintWriter out = new PrintWriter(new BufferedWriter(salida == null
+                     ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                     : Files.newBufferedWriter(Paths.get(salida), StandardCharsets.UTF_8)))) {
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(ejecutor.submit(() -> {
+                    MotorBusqueda motor = new MotorBusqueda(config);
+                    int[] legales = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+                    int[] respuestas = new int[GeneradorMovimientos.MAX_MOVIMIENTOS]; // Para la marca de jaque del SAN
+                    String linea;
+                    while ((linea = siguienteLinea(entrada)) != null) {
+                        String resultado = analizar(motor, linea, legales, respuestas, tiempo, limiteNodos, prof);
+                        synchronized (out) {
+                            out.println(resultado);
+                            out.flush();
+                        }
+                    }
+                    motor.cerrar();
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            ejecutor.shutdown();
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.err.printf(Locale.ROOT, "Posiciones: %d (%d inválidas), nodos: %d, %.1f s en %d hilos (%.0f nps, %.1f posiciones/s)%n",
+                posiciones.sum(), invalidas.sum(), nodos.sum(), segundos, hilos, nodos.sum() / segundos, posiciones.sum() / segundos);
+        if (conSolucion.sum() > 0) {
+            System.err.printf(Locale.ROOT, "Resueltas: %d de %d con bm/am%n", resueltas.sum(), conSolucion.sum());
+        }
+    }
+
+    // La siguiente línea con una posición (sin vacías ni comentarios), o null al final
+    private static String siguienteLinea(BufferedReader entrada) throws IOException {
+        synchronized (entrada) {
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                linea = linea.trim();
+                if (!linea.isEmpty() && !linea.startsWith("#")) {
+                    return linea;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static String analizar(MotorBusqueda motor, String linea, int[] legales, int[] respuestas,
+            long tiempoMs, long maxNodos, int profundidad) {
+        posiciones.increment();
+        Epd epd;
+        try {
+            epd = Epd.leer(linea);
+        } catch (IllegalArgumentException e) {
+            invalidas.increment();
+            return "# No se pudo leer: " + linea;
+        }
+        Posicion pos = epd.posicion();
+        motor.nuevaPartida(); // Cada posición como si fuera la primera: el resultado no depende del orden
+        MotorBusqueda.Resultado r = motor.buscar(pos, tiempoMs, maxNodos, profundidad);
+        nodos.add(r.nodos);
+
+        epd.poner("acd", Integer.toString(r.profundidad));
+        epd.poner("acn", Long.toString(r.nodos));
+        epd.poner("acs", String.format(Locale.ROOT, "%.3f", r.tiempoMs / 1000.0));
+        // Con una sola jugada legal el motor no busca: no hay puntuación que informar
+        if (r.nodos > 0 || r.movimiento == Movimiento.NINGUNO) {
+            epd.poner("ce", Integer.toString(r.puntuacion));
+        }
+        if (Math.abs(r.puntuacion) >= MotorBusqueda.MATE_MINIMO) {
+            int plies = MotorBusqueda.MATE - Math.abs(r.puntuacion);
+            epd.poner("dm", Integer.toString(r.puntuacion > 0 ? (plies + 1) / 2 : -(plies / 2)));
+        }
+        if (r.movimiento == Movimiento.NINGUNO) {
+            return epd.escribir();
+        }
+        int n = GeneradorMovimientos.generarLegales(pos, legales);
+        String san = NotacionSan.escribir(pos, r.movimiento, legales, n, respuestas);
+        epd.poner("pm", san);
+
+        String bm = epd.operacion("bm");
+        String am = epd.operacion("am");
+        if (bm != null || am != null) {
+            conSolucion.increment();
+            if ((bm == null || contiene(pos, bm, r.movimiento, legales, n))
+                    && (am == null || !contiene(pos, am, r.movimiento, legales, n))) {
+                resueltas.increment();
+            }
+        }
+        return epd.escribir();
+    }
+
+    // Si alguna de las jugadas en SAN de la lista ("Qg6 Rxf7+") es el movimiento
+    private static boolean contiene(Posicion pos, String jugadas, int movimiento, int[] legales, int n) {
+        for (String san : jugadas.trim().split("\\s+")) {
+            if (NotacionSan.leer(pos, san, legales, n) == movimiento) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,241 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Crea un libro de aperturas Polyglot (.bin) a partir de partidas en PGN (leídas con LectorPgn).
+// De cada partida con resultado se toman las primeras jugadas; cada jugada suma 2 puntos si el
+// bando que la hizo ganó y 1 si hizo tablas (como "polyglot make-book"). El peso de una jugada en
+// el libro son sus puntos, escalados por posición para que quepan en 16 bits.
+//
+// Uso (desde AjedrezJava):
+//   javac -encoding UTF-8 -d out src/*.java herramientas/*.java
+//   java -cp out CrearLibro --pgn partidas.pgn [--pgn otras.pgn] --salida libro.bin [--plies 24] [--min-partidas 3]
+public class CrearLibro {
+
+    // Tabla abierta (clave, movimiento) -> puntos y partidas; el movimiento 0 marca un hueco
+    private static long[] claves = new long[1 << 16];
+    private static int[] movimientos = new int[1 << 16];
+    private static int[] puntos = new int[1 << 16];
+    private static int[] partidas = new int[1 << 16];
+    private static int usadas;
+
+    public static void main(String[] args) throws IOException {
+        List<String> archivos = new ArrayList<>();
+        String salida = null;
+        int plies = 24;
+        int minPartidas = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--pgn": archivos.add(args[++i]); break;
+                case "--salida": salida = args[++i]; break;
+                case "--plies": plies = Integer.parseInt(args[++i]); break;
+                case "--min-partidas": minPartidas = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (archivos.isEmpty() || salida == null) {
+            System.err.println("Uso: CrearLibro --pgn partidas.pgn --salida libro.bin [--plies 24] [--min-partidas 1]");
+            System.exit(2);
+        }
+        if (!ClavePolyglot.compatible()) {
+            System.err.println("Aviso: sin las claves de Polyglot (ver ClavePolyglot) el libro solo sirve para este programa");
+        }
+
+        long inicio = System.nanoTime();
+        long[] cuentas = new long[3]; // Partidas leídas, usadas y con una jugada que no se pudo resolver
+        for (String archivo : archivos) {
+            try (LectorPgn lector = LectorPgn.abrir(Paths.get(archivo))) {
+                leerPartidas(lector, plies, cuentas);
+            }
+        }
+        long entradas = escribir(salida, minPartidas);
+        System.out.printf("Partidas: %d leídas, %d usadas, %d con jugadas inválidas%n", cuentas[0], cuentas[1], cuentas[2]);
+        System.out.printf("Entradas: %d de %d (clave, jugada) distintas en %.2f s -> %s%n",
+                entradas, usadas, (System.nanoTime() - inicio) / 1e9, salida);
+    }
+
+    // Toma las primeras jugadas de cada partida con resultado (una jugada que no se puede resolver
+    // corta la partida ahí)
+    private static void leerPartidas(LectorPgn lector, int plies, long[] cuentas) throws IOException {
+        int[] legales = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+        long[] clavesPartida = new long[plies];
+        int[] movimientosPartida = new int[plies];
+        LectorPgn.Juego juego;
+        while ((juego = lector.siguiente()) != null) {
+            cuentas[0]++;
+            String resultado = juego.resultado();
+            int ganador = resultado.equals("1-0") ? Posicion.BLANCO : resultado.equals("0-1") ? Posicion.NEGRO : -1;
+            if (!resultado.equals("1/2-1/2") && ganador < 0) {
+                continue; // Sin resultado no se sabe quién jugó bien
+            }
+            Posicion pos;
+            try {
+                pos = juego.posicionInicial();
+            } catch (IllegalArgumentException e) {
+                cuentas[2]++;
+                continue;
+            }
+            int primerTurno = pos.turno();
+            int[] jugadas = new int[1];
+            boolean[] valida = {true};
+            juego.recorrer(san -> {
+                if (jugadas[0] == plies) {
+                    return false;
+                }
+                int n = GeneradorMovimientos.generarLegales(pos, legales);
+                int m = NotacionSan.leer(pos, san, legales, n);
+                if (m == Movimiento.NINGUNO) {
+                    valida[0] = false;
+                    return false;
+                }
+                clavesPartida[jugadas[0]] = ClavePolyglot.calcular(pos);
+                movimientosPartida[jugadas[0]] = ClavePolyglot.codificar(m);
+                jugadas[0]++;
+                pos.hacerMovimiento(m);
+                return true;
+            });
+            if (!valida[0]) {
+                cuentas[2]++;
+            }
+            cuentas[1]++;
+            int turno = primerTurno;
+            for (int i = 0; i < jugadas[0]; i++, turno ^= 1) {
+                sumar(clavesPartida[i], movimientosPartida[i], ganador < 0 ? 1 : ganador == turno ? 2 : 0);
+            }
+        }
+    }
+
+    private static void sumar(long clave, int movimiento, int puntosJugada) {
+        if (2 * (usadas + 1) > claves.length) {
+            crecer();
+        }
+        int i = ranura(clave, movimiento, claves.length - 1);
+        while (movimientos[i] != 0 && (claves[i] != clave || movimientos[i] != movimiento)) {
+            i = (i + 1) & (claves.length - 1);
+        }
+        if (movimientos[i] == 0) {
+            claves[i] = clave;
+            movimientos[i] = movimiento;
+            usadas++;
+        }
+        puntos[i] += puntosJugada;
+        partidas[i]++;
+    }
+
+    private static int ranura(long clave, int movimiento, int mascara) {
+        long h = (clave ^ movimiento * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (int) (h >>> 32) & mascara;
+    }
+
+    private static void crecer() {
+        long[] viejasClaves = claves;
+        int[] viejosMovimientos = movimientos;
+        int[] viejosPuntos = puntos;
+        int[] viejasPartidas = partidas;
+        int tamano = viejasClaves.length * 2;
+        claves = new long[tamano];
+        movimientos = new int[tamano];
+        puntos = new int[tamano];
+        partidas = new int[tamano];
+        for (int j = 0; j < viejasClaves.length; j++) {
+            if (viejosMovimientos[j] != 0) {
+                int i = ranura(viejasClaves[j], viejosMovimientos[j], tamano - 1);
+                while (movimientos[i] != 0) {
+                    i = (i + 1) & (tamano - 1);
+                }
+                claves[i] = viejasClaves[j];
+                movimientos[i] = viejosMovimientos[j];
+                puntos[i] = viejosPuntos[j];
+                partidas[i] = viejasPartidas[j];
+            }
+        }
+    }
+
+    // Escribe las entradas ordenadas por clave (sin signo) y, dentro de cada posición, por peso
+    private static long escribir(String salida, int minPartidas) throws IOException {
+        int n = 0;
+        for (int i = 0; i < claves.length; i++) {
+            if (movimientos[i] != 0 && partidas[i] >= minPartidas && puntos[i] > 0) {
+                claves[n] = claves[i];
+                movimientos[n] = movimientos[i];
+                puntos[n] = puntos[i];
+                n++;
+            }
+        }
+        ordenar(0, n - 1);
+        long escritas = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(salida), 1 << 16))) {
+            for (int inicio = 0; inicio < n; ) {
+                int fin = inicio;
+                int maximo = 0;
+                while (fin < n && claves[fin] == claves[inicio]) {
+                    maximo = Math.max(maximo, puntos[fin]);
+                    fin++;
+                }
+                int divisor = (maximo + 0xFFFE) / 0xFFFF;
+                for (int i = inicio; i < fin; i++) {
+                    out.writeLong(claves[i]);
+                    out.writeShort(movimientos[i]);
+                    out.writeShort(Math.max(1, puntos[i] / divisor));
+                    out.writeInt(0); // Aprendizaje: no se usa
+                    escritas++;
+                }
+                inicio = fin;
+            }
+        }
+        return escritas;
+    }
+
+    // Quicksort sobre los arreglos paralelos: clave ascendente sin signo, puntos descendentes
+    private static void ordenar(int bajo, int alto) {
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            long pivoteClave = claves[medio];
+            int pivotePuntos = puntos[medio];
+            int i = bajo;
+            int j = alto;
+            while (i <= j) {
+                while (comparar(i, pivoteClave, pivotePuntos) < 0) {
+                    i++;
+                }
+                while (comparar(j, pivoteClave, pivotePuntos) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    intercambiar(i++, j--);
+                }
+            }
+            // Recursión en la parte menor para no pasar de log(n) de profundidad
+            if (j - bajo < alto - i) {
+                ordenar(bajo, j);
+                bajo = i;
+            } else {
+                ordenar(i, alto);
+                alto = j;
+            }
+        }
+    }
+
+    private static int comparar(int i, long clave, int puntosPivote) {
+        int c = Long.compareUnsigned(claves[i], clave);
+        return c != 0 ? c : Integer.compare(puntosPivote, puntos[i]);
+    }
+
+    private static void intercambiar(int i, int j) {
+        long c = claves[i];
+        claves[i] = claves[j];
+        claves[j] = c;
+        int m = movimientos[i];
+        movimientos[i] = movimientos[j];
+        movimientos[j] = m;
+        int p = puntos[i];
+        puntos[i] = puntos[j];
+        puntos[j] = p;
+    }
+}
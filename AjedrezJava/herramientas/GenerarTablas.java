@@ -0,0 +1,381 @@
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+// Genera las tablas de finales de TablasFinales, en paralelo con fork-join, iterando hacia adelante
+// hasta un punto fijo (no es análisis retrógrado: no se generan movimientos hacia atrás).
+//
+// Primero se marcan las posiciones ilegales y los mates. Después, en la iteración k, una posición
+// sin resolver gana en k plies si tiene un movimiento a una posición que pierde en k-1 (k impar), o
+// pierde en k si todos sus movimientos llevan a posiciones ganadas en menos de k plies (k par).
+// Cada iteración vuelve a generar los movimientos de todas las posiciones sin resolver, así que el
+// costo crece con el mate más largo (KBNK: 65 plies, unas 70 pasadas completas).
+// Las capturas y coronaciones llevan a tablas más pequeñas, que se generan antes. Cada iteración
+// reparte los índices de la tabla entre los hilos del pool; un hilo solo escribe valores de la
+// iteración en curso, que nadie lee en esa misma iteración, así que no hace falta sincronizar.
+// Lo que queda sin resolver al final son tablas.
+//
+// Uso (desde AjedrezJava):
+//   javac -encoding UTF-8 -d out src/*.java herramientas/*.java
+//   java -cp out GenerarTablas [--directorio tablas] [--tablas KQK,KRK,KBNK,KQKR] [--piezas 3|4] [--hilos 8]
+//   java -Dajedrez.tablas=tablas -cp out Main
+public class GenerarTablas {
+
+    private static final String FUERZA = "QRBNP"; // Orden de las piezas en una firma, de la más fuerte a la más débil
+    private static final int TRAMO_MINIMO = 1 << 14; // Índices que procesa una tarea sin dividirse
+
+    private final File directorio;
+    private final ForkJoinPool pool;
+    private final TablasFinales tablas = new TablasFinales(); // Las ya generadas o cargadas, para las capturas
+    private final Map<String, TablasFinales.Tabla> generadas = new LinkedHashMap<>();
+
+    private GenerarTablas(File directorio, int hilos) {
+        this.directorio = directorio;
+        this.pool = new ForkJoinPool(hilos);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String directorio = "tablas";
+        List<String> pedidas = new ArrayList<>();
+        int piezas = 3;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--directorio": directorio = args[++i]; break;
+                case "--tablas": for (String f : args[++i].split(",")) pedidas.add(f.trim().toUpperCase()); break;
+                case "--piezas": piezas = Integer.parseInt(args[++i]); break;
+                case "--hilos": hilos = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (pedidas.isEmpty()) {
+            pedidas = todasLasFirmas(piezas);
+        }
+        File dir = new File(directorio);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("No se pudo crear " + directorio);
+            System.exit(1);
+        }
+
+        GenerarTablas generador = new GenerarTablas(dir, hilos);
+        long inicio = System.nanoTime();
+        for (String firma : pedidas) {
+            generador.generar(canonica(firma));
+        }
+        System.out.printf("%d tablas en %s (%d hilos), %.1f s%n", generador.generadas.size(), directorio, hilos,
+                (System.nanoTime() - inicio) / 1e9);
+        generador.pool.shutdown();
+    }
+
+    // Genera la tabla (y antes las que necesita) salvo que ya exista en el directorio
+    private void generar(String firma) throws Exception {
+        if (firma.equals("KK") || generadas.containsKey(firma)) {
+            return;
+        }
+        TablasFinales.Tabla tabla = new TablasFinales.Tabla(firma);
+        for (String sub : subtablas(tabla)) {
+            generar(sub);
+        }
+        File archivo = new File(directorio, firma + TablasFinales.EXTENSION);
+        if (archivo.isFile()) {
+            tablas.agregar(TablasFinales.leer(archivo, tabla));
+            generadas.put(firma, tabla);
+            System.out.printf("%-6s ya existe%n", firma);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        byte[] valores = new byte[tabla.tamano];
+        int maximoSubtablas = 0;
+        for (String sub : subtablas(tabla)) {
+            maximoSubtablas = Math.max(maximoSubtablas, maximo(sub));
+        }
+        pool.invoke(new Tramo(tabla, valores, 0, 0, tabla.tamano, new LongAdder()));
+        int sinCambios = 0;
+        int k = 1;
+        for (; sinCambios < 2 || k <= maximoSubtablas + 1; k++) {
+            if (k >= TablasFinales.PIERDE - 1) {
+                throw new IllegalStateException("Mate demasiado largo para un byte en " + firma);
+            }
+            LongAdder cambios = new LongAdder();
+            pool.invoke(new Tramo(tabla, valores, k, 0, tabla.tamano, cambios));
+            sinCambios = cambios.sum() == 0 ? sinCambios + 1 : 0;
+        }
+
+        TablasFinales.escribir(archivo, tabla, valores);
+        tabla.valores = ByteBuffer.wrap(valores);
+        tablas.agregar(tabla);
+        generadas.put(firma, tabla);
+
+        long[] cuentas = new long[4]; // Ganan, pierden, tablas, ilegales
+        int mas = 0;
+        for (byte b : valores) {
+            int v = b & 0xFF;
+            if (v == TablasFinales.ILEGAL) {
+                cuentas[3]++;
+            } else if (v == TablasFinales.TABLAS) {
+                cuentas[2]++;
+            } else if (v < TablasFinales.PIERDE) {
+                cuentas[0]++;
+                mas = Math.max(mas, v);
+            } else {
+                cuentas[1]++;
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%-6s %,11d posiciones (%,d legales): %,d ganan, %,d pierden, %,d tablas; mate más largo %d plies; "
+                        + "%d iteraciones, %.2f s (%,.0f posiciones/s)%n",
+                firma, tabla.tamano, tabla.tamano - cuentas[3], cuentas[0], cuentas[1], cuentas[2], mas, k,
+                segundos, tabla.tamano * (double) k / segundos);
+    }
+
+    // Mayor distancia al mate de una tabla ya generada
+    private int maximo(String firma) {
+        if (firma.equals("KK")) {
+            return 0;
+        }
+        TablasFinales.Tabla tabla = generadas.get(firma);
+        int mas = 0;
+        for (int i = 0; i < tabla.tamano; i++) {
+            int v = tabla.valor(i);
+            if (v != TablasFinales.ILEGAL) {
+                mas = Math.max(mas, v < TablasFinales.PIERDE ? v : v - TablasFinales.PIERDE);
+            }
+        }
+        return mas;
+    }
+
+    // Una iteración sobre los índices [inicio, fin); la iteración 0 marca ilegales y mates
+    private final class Tramo extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TablasFinales.Tabla tabla;
+        private final byte[] valores;
+        private final int iteracion;
+        private final int inicio;
+        private final int fin;
+        private final LongAdder cambios;
+
+        Tramo(TablasFinales.Tabla tabla, byte[] valores, int iteracion, int inicio, int fin, LongAdder cambios) {
+            this.tabla = tabla;
+            this.valores = valores;
+            this.iteracion = iteracion;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.cambios = cambios;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - inicio > TRAMO_MINIMO) {
+                int medio = (inicio + fin) >>> 1;
+                invokeAll(new Tramo(tabla, valores, iteracion, inicio, medio, cambios),
+                        new Tramo(tabla, valores, iteracion, medio, fin, cambios));
+                return;
+            }
+            Posicion pos = new Posicion();
+            int[] casillas = new int[tabla.piezas.length];
+            int[] legales = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+            int resueltas = 0;
+            for (int i = inicio; i < fin; i++) {
+                if (valores[i] != TablasFinales.TABLAS) {
+                    continue;
+                }
+                if (!colocar(pos, i, casillas)) {
+                    if (iteracion == 0) {
+                        valores[i] = (byte) TablasFinales.ILEGAL;
+                    }
+                    continue;
+                }
+                int n = GeneradorMovimientos.generarLegales(pos, legales);
+                if (n == 0) {
+                    if (iteracion == 0 && GeneradorMovimientos.enJaque(pos)) {
+                        valores[i] = (byte) TablasFinales.PIERDE; // Mate
+                        resueltas++;
+                    }
+                    continue; // Ahogado: tablas
+                }
+                if (iteracion == 0) {
+                    continue;
+                }
+                int nuevo = iteracion % 2 == 1 ? ganaEn(pos, legales, n) : pierdeEn(pos, legales, n);
+                if (nuevo != TablasFinales.TABLAS) {
+                    valores[i] = (byte) nuevo;
+                    resueltas++;
+                }
+            }
+            cambios.add(resueltas);
+        }
+
+        // Gana en k si algún movimiento deja al rival perdiendo en k - 1
+        private int ganaEn(Posicion pos, int[] legales, int n) {
+            int buscado = TablasFinales.PIERDE + iteracion - 1;
+            for (int j = 0; j < n; j++) {
+                if (valorTrasMover(pos, legales[j]) == buscado) {
+                    return iteracion;
+                }
+            }
+            return TablasFinales.TABLAS;
+        }
+
+        // Pierde en k si todos los movimientos dejan al rival ganando en menos de k
+        private int pierdeEn(Posicion pos, int[] legales, int n) {
+            for (int j = 0; j < n; j++) {
+                int v = valorTrasMover(pos, legales[j]);
+                if (v == TablasFinales.TABLAS || v >= TablasFinales.PIERDE || v >= iteracion) {
+                    return TablasFinales.TABLAS;
+                }
+            }
+            return TablasFinales.PIERDE + iteracion;
+        }
+
+        private int valorTrasMover(Posicion pos, int movimiento) {
+            boolean mismaTabla = pos.piezaEn(Movimiento.hasta(movimiento)) == Posicion.VACIA
+                    && Movimiento.especial(movimiento) == Movimiento.NORMAL;
+            pos.hacerMovimiento(movimiento);
+            // En la misma tabla se lee el arreglo en construcción; si no, la tabla menor ya terminada
+            int v = mismaTabla ? valores[tabla.indice(pos, false)] & 0xFF : tablas.sondear(pos);
+            pos.deshacerMovimiento();
+            return v;
+        }
+
+        // Pone en pos la posición del índice; false si es imposible (casillas repetidas, peón en la
+        // primera o la última fila, reyes juntos o el bando que no mueve en jaque)
+        private boolean colocar(Posicion pos, int indice, int[] casillas) {
+            long anteriores = pos.ocupacion();
+            while (anteriores != 0) {
+                pos.quitarPieza(Long.numberOfTrailingZeros(anteriores));
+                anteriores &= anteriores - 1;
+            }
+            int resto = indice >>> 1;
+            for (int j = casillas.length - 1; j >= 1; j--) {
+                casillas[j] = resto & 63;
+                resto >>>= 6;
+            }
+            casillas[0] = tabla.casillaRey(resto);
+            long ocupadas = 0;
+            for (int j = 0; j < casillas.length; j++) {
+                ocupadas |= 1L << casillas[j];
+            }
+            if (Long.bitCount(ocupadas) != casillas.length
+                    || (Ataques.rey(casillas[0]) & (1L << casillas[1])) != 0) {
+                return false;
+            }
+            for (int j = 0; j < casillas.length; j++) {
+                int pieza = tabla.piezas[j];
+                int fila = Posicion.fila(casillas[j]);
+                if (Posicion.tipoDe(pieza) == Posicion.PEON && (fila == 0 || fila == 7)) {
+                    return false;
+                }
+            }
+            for (int j = 0; j < casillas.length; j++) {
+                pos.colocarPieza(tabla.piezas[j], casillas[j]);
+            }
+            int turno = indice & 1;
+            pos.setTurno(turno);
+            return !Ataques.casillaAtacada(pos, pos.casillaRey(turno ^ 1), turno);
+        }
+    }
+
+    // Firmas a las que se llega capturando una pieza o coronando un peón
+    private static List<String> subtablas(TablasFinales.Tabla tabla) {
+        List<String> subs = new ArrayList<>();
+        int n = tabla.piezas.length;
+        for (int quitar = 2; quitar < n; quitar++) {
+            int[] resto = new int[n - 1];
+            for (int j = 0, k = 0; j < n; j++) {
+                if (j != quitar) {
+                    resto[k++] = tabla.piezas[j];
+                }
+            }
+            agregar(subs, resto);
+        }
+        for (int j = 2; j < n; j++) {
+            if (Posicion.tipoDe(tabla.piezas[j]) == Posicion.PEON) {
+                for (int tipo = Posicion.CABALLO; tipo <= Posicion.REINA; tipo++) {
+                    int[] coronado = tabla.piezas.clone();
+                    coronado[j] = Posicion.pieza(Posicion.colorDe(tabla.piezas[j]), tipo);
+                    agregar(subs, coronado);
+                }
+            }
+        }
+        return subs;
+    }
+
+    private static void agregar(List<String> subs, int[] piezas) {
+        StringBuilder blancas = new StringBuilder();
+        StringBuilder negras = new StringBuilder();
+        for (int j = 2; j < piezas.length; j++) {
+            char letra = "PNBRQK".charAt(Posicion.tipoDe(piezas[j]));
+            (Posicion.colorDe(piezas[j]) == Posicion.BLANCO ? blancas : negras).append(letra);
+        }
+        String firma = canonica("K" + blancas + "K" + negras);
+        if (!subs.contains(firma)) {
+            subs.add(firma);
+        }
+    }
+
+    // Firma con las piezas de cada bando de la más fuerte a la más débil y el bando fuerte primero
+    static String canonica(String firma) {
+        int segundoRey = firma.indexOf('K', 1);
+        if (!firma.startsWith("K") || segundoRey < 0) {
+            throw new IllegalArgumentException("Firma de tabla inválida: " + firma);
+        }
+        String a = ordenar(firma.substring(1, segundoRey));
+        String b = ordenar(firma.substring(segundoRey + 1));
+        return masFuerte(b, a) ? "K" + b + "K" + a : "K" + a + "K" + b;
+    }
+
+    private static String ordenar(String piezas) {
+        char[] letras = piezas.toCharArray();
+        java.util.Arrays.sort(letras);
+        StringBuilder s = new StringBuilder();
+        for (char letra : FUERZA.toCharArray()) {
+            for (char c : letras) {
+                if (c == letra) {
+                    s.append(c);
+                }
+            }
+        }
+        return s.toString();
+    }
+
+    // Más piezas es más fuerte; a igual cantidad decide la pieza más fuerte que difiere
+    private static boolean masFuerte(String a, String b) {
+        if (a.length() != b.length()) {
+            return a.length() > b.length();
+        }
+        for (int i = 0; i < a.length(); i++) {
+            int d = FUERZA.indexOf(a.charAt(i)) - FUERZA.indexOf(b.charAt(i));
+            if (d != 0) {
+                return d < 0;
+            }
+        }
+        return false;
+    }
+
+    // Todas las firmas de 3 piezas, y de 4 si se piden
+    private static List<String> todasLasFirmas(int piezas) {
+        List<String> firmas = new ArrayList<>();
+        for (int i = 0; i < FUERZA.length(); i++) {
+            firmas.add("K" + FUERZA.charAt(i) + "K");
+        }
+        if (piezas >= 4) {
+            for (int i = 0; i < FUERZA.length(); i++) {
+                for (int j = i; j < FUERZA.length(); j++) {
+                    firmas.add("K" + FUERZA.charAt(i) + FUERZA.charAt(j) + "K");
+                    firmas.add("K" + FUERZA.charAt(i) + "K" + FUERZA.charAt(j));
+                }
+            }
+        }
+        return firmas;
+    }
+}
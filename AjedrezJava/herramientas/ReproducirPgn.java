@@ -0,0 +1,185 @@
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Reproduce partidas PGN sobre el generador de movimientos para verificar las reglas con partidas
+// reales: cada jugada en SAN tiene que corresponder a exactamente un movimiento legal, y las marcas
+// de jaque (+) y mate (#) tienen que coincidir con la posición que queda.
+//
+// Un hilo lee el archivo en streaming (LectorPgn) y reparte lotes de partidas por una cola acotada;
+// los demás resuelven y reproducen las jugadas. La memoria queda acotada por el tamaño de la cola,
+// no por el del archivo. Informa partidas/s, jugadas/s y MB/s.
+//
+// Uso (desde AjedrezJava):
+//   javac -encoding UTF-8 -d out src/*.java herramientas/*.java
+//   java -cp out ReproducirPgn --pgn partidas.pgn [--pgn otras.pgn] [--hilos 8] [--max-partidas N]
+public class ReproducirPgn {
+
+    private static final int LOTE = 256;               // Partidas por lote
+    private static final int ERRORES_MOSTRADOS = 10;
+    private static final List<LectorPgn.Juego> FIN = new ArrayList<>(); // Lote vacío: no hay más
+
+    private static final LongAdder partidas = new LongAdder();
+    private static final LongAdder jugadas = new LongAdder();
+    private static final LongAdder invalidas = new LongAdder();    // Partidas con una jugada que no se pudo resolver
+    private static final LongAdder marcasErroneas = new LongAdder(); // '+' o '#' que no coinciden con la posición
+    private static final LongAdder erroresMostrados = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        List<String> archivos = new ArrayList<>();
+        int hilos = Runtime.getRuntime().availableProcessors();
+        long maxPartidas = Long.MAX_VALUE;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--pgn": archivos.add(args[++i]); break;
+                case "--hilos": hilos = Integer.parseInt(args[++i]); break;
+                case "--max-partidas": maxPartidas = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (archivos.isEmpty()) {
+            System.err.println("Uso: ReproducirPgn --pgn partidas.pgn [--hilos 8] [--max-partidas N]");
+            System.exit(2);
+        }
+
+        BlockingQueue<List<LectorPgn.Juego>> cola = new ArrayBlockingQueue<>(hilos * 4);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread t = new Thread(tarea, "reproducir-pgn");
+            t.setDaemon(true); // Si algo falla, el proceso termina aunque queden trabajadores esperando
+            return t;
+        });
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(ejecutor.submit(() -> {
+                int[] legales = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+                while (true) {
+                    List<LectorPgn.Juego> lote = cola.take();
+                    if (lote == FIN) {
+                        return null;
+                    }
+                    for (LectorPgn.Juego juego : lote) {
+                        reproducir(juego, legales);
+                    }
+                }
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        long leidas = 0;
+        long bytes = 0;
+        for (String archivo : archivos) {
+            try (LectorPgn lector = LectorPgn.abrir(Paths.get(archivo))) {
+                List<LectorPgn.Juego> lote = new ArrayList<>(LOTE);
+                LectorPgn.Juego juego;
+                while (leidas < maxPartidas && (juego = lector.siguiente()) != null) {
+                    lote.add(juego);
+                    leidas++;
+                    if (lote.size() == LOTE) {
+                        encolar(cola, lote, tareas);
+                        lote = new ArrayList<>(LOTE);
+                    }
+                }
+                if (!lote.isEmpty()) {
+                    encolar(cola, lote, tareas);
+                }
+                bytes += lector.bytesLeidos();
+            }
+        }
+        for (int h = 0; h < hilos; h++) {
+            encolar(cola, FIN, tareas);
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf("Partidas: %d (%d con jugadas inválidas), jugadas: %d, marcas de jaque/mate erróneas: %d%n",
+                partidas.sum(), invalidas.sum(), jugadas.sum(), marcasErroneas.sum());
+        System.out.printf("%.2f s en %d hilos: %.0f partidas/s, %.0f jugadas/s, %.1f MB/s%n", segundos, hilos,
+                partidas.sum() / segundos, jugadas.sum() / segundos, bytes / 1e6 / segundos);
+    }
+
+    // Pone el lote en la cola sin bloquearse para siempre: si un trabajador terminó antes de tiempo
+    // (falló con una excepción), nadie vaciaría la cola, así que se propaga su error
+    private static void encolar(BlockingQueue<List<LectorPgn.Juego>> cola, List<LectorPgn.Juego> lote,
+            List<Future<?>> tareas) throws Exception {
+        while (!cola.offer(lote, 100, TimeUnit.MILLISECONDS)) {
+            for (Future<?> tarea : tareas) {
+                if (tarea.isDone()) {
+                    tarea.get(); // Lanza la ExecutionException del trabajador
+                    throw new IllegalStateException("Un trabajador terminó antes de tiempo");
+                }
+            }
+        }
+    }
+
+    private static void reproducir(LectorPgn.Juego juego, int[] legales) {
+        partidas.increment();
+        Posicion pos;
+        try {
+            pos = juego.posicionInicial();
+        } catch (IllegalArgumentException e) {
+            invalidas.increment();
+            mostrarError(juego, e.getMessage());
+            return;
+        }
+        int[] hechas = new int[1];
+        boolean[] valida = {true};
+        juego.recorrer(san -> {
+            int n = GeneradorMovimientos.generarLegales(pos, legales);
+            int movimiento = NotacionSan.leer(pos, san, legales, n);
+            if (movimiento == Movimiento.NINGUNO) {
+                valida[0] = false;
+                // Numerada como en el PGN ("12." o "12..."): desde un FEN la partida puede empezar con negras
+                mostrarError(juego, "jugada " + pos.numeroJugada() + (pos.turno() == Posicion.BLANCO ? "." : "...")
+                        + " \"" + san + "\" no es legal o es ambigua");
+                return false;
+            }
+            pos.hacerMovimiento(movimiento);
+            hechas[0]++;
+            char marca = marca(san);
+            boolean jaque = GeneradorMovimientos.enJaque(pos);
+            boolean mate = jaque && GeneradorMovimientos.generarLegales(pos, legales) == 0;
+            if ((marca == '+' && (!jaque || mate)) || (marca == '#' && !mate) || (marca == ' ' && jaque)) {
+                marcasErroneas.increment();
+            }
+            return true;
+        });
+        jugadas.add(hechas[0]);
+        if (!valida[0]) {
+            invalidas.increment();
+        }
+    }
+
+    // '+', '#' o ' ' (sin marca), sin contar las anotaciones !?
+    private static char marca(CharSequence san) {
+        for (int i = san.length() - 1; i >= 0; i--) {
+            char c = san.charAt(i);
+            if (c == '+' || c == '#') {
+                return c;
+            }
+            if (c != '!' && c != '?') {
+                return ' ';
+            }
+        }
+        return ' ';
+    }
+
+    private static void mostrarError(LectorPgn.Juego juego, String mensaje) {
+        erroresMostrados.increment();
+        if (erroresMostrados.sum() <= ERRORES_MOSTRADOS) {
+            String evento = juego.cabecera("Event");
+            System.err.println("[" + (evento == null ? "?" : evento) + "] " + mensaje);
+        }
+    }
+}
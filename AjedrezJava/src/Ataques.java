@@ -0,0 +1,251 @@
+public class Ataques {
+
+    // Tablas precalculadas de ataques para piezas que saltan o avanzan una casilla
+    private static final long[] CABALLO = new long[64];
+    private static final long[] REY = new long[64];
+    private static final long[][] PEON = new long[2][64]; // Casillas que ataca un peón de cada color
+
+    // Piezas deslizantes: bitboards mágicos (mascara de ocupación relevante * mágico >>> desplazamiento)
+    private static final long[] MASCARA_TORRE = new long[64];
+    private static final long[] MASCARA_ALFIL = new long[64];
+    private static final int[] DESPLAZAMIENTO_TORRE = new int[64];
+    private static final int[] DESPLAZAMIENTO_ALFIL = new int[64];
+    private static final int[] INICIO_TORRE = new int[64];
+    private static final int[] INICIO_ALFIL = new int[64];
+    private static long[] tablaTorre;
+    private static long[] tablaAlfil;
+
+    // ENTRE[a][b]: casillas estrictamente entre a y b si están en la misma fila, columna o diagonal
+    // LINEA[a][b]: la línea completa (de borde a borde) que pasa por a y b, o 0 si no están alineadas
+    private static final long[][] ENTRE = new long[64][64];
+    private static final long[][] LINEA = new long[64][64];
+
+    // Números mágicos por casilla, buscados una sola vez con una semilla fija para esta numeración de casillas
+    private static final long[] MAGICO_TORRE = {
+            0x0980008011400020L, 0x8340004410002000L, 0x0880200090008268L, 0x0080080080100004L,
+            0x8100110004020800L, 0x0300010004000822L, 0x08801A0029000080L, 0x8100050001204882L,
+            0x0844800081400320L, 0x0804402010004000L, 0x0108802003100480L, 0x0004808008001000L,
+            0x0003001801001014L, 0x0002000200041008L, 0x0004008108042210L, 0x0105000100009042L,
+            0x0400808000400021L, 0xC100404010002000L, 0x0060008010002088L, 0x0400808008001000L,
+            0x4440808008000400L, 0x1002008004000280L, 0x40024400300D1248L, 0x0010020000408104L,
+            0x0101008200204200L, 0x8020002040005000L, 0x4100100080802000L, 0x4008006A80100280L,
+            0x1020080080040080L, 0x0004010040020040L, 0x0018A12400080290L, 0x6140004200008104L,
+            0x4000400020800090L, 0x2020002080804000L, 0x0000408202002010L, 0x0080100501000820L,
+            0x0000800400800800L, 0x000A200408014010L, 0x0100800200800100L, 0xA00800570200008CL,
+            0x008000406000C010L, 0x1040100028002000L, 0x0048200100110040L, 0x0068490210030020L,
+            0x1009080005010010L, 0x2142000804010100L, 0x1001080110840002L, 0x1801004400820001L,
+            0x010440208D020200L, 0x0000400020008080L, 0x0200200080100280L, 0x0000100020090100L,
+            0x0204008008020480L, 0x8104010040020040L, 0x78000201B0080400L, 0x0040800051002880L,
+            0x0050108001002041L, 0x208A801100614003L, 0x0006002042089082L, 0x0011090004201001L,
+            0x1002001004200802L, 0x0005000208040001L, 0x0002002701AC0822L, 0x000010250184004AL
+    };
+    private static final long[] MAGICO_ALFIL = {
+            0x1002200101020088L, 0x4004010404049080L, 0x200404008A020422L, 0x000806004C002202L,
+            0x8001104110000090L, 0x8002080248000202L, 0x0000440484408000L, 0x0002010082012020L,
+            0x0488406912288201L, 0x0101600202004110L, 0x0810100400842440L, 0x0800240410822002L,
+            0x0000020210010030L, 0x8100008260210008L, 0x4404004404044201L, 0x2440008084104200L,
+            0x88220A08207C0280L, 0x4104801001080120L, 0x4110020808304010L, 0x2518050402400980L,
+            0x0002000422010010L, 0x0403020080A00100L, 0x0244200200822880L, 0x0608200200820860L,
+            0x81202818C6100400L, 0x4081501088100100L, 0x2002491448020400L, 0x0070040000440008L,
+            0x0880820004010400L, 0x8490108202C80400L, 0x0004004204050C41L, 0x800102400C241402L,
+            0x1014200A00041013L, 0x0008110400300400L, 0x0042060900220800L, 0x00D2200800010105L,
+            0x0C0A0484008A0020L, 0x801001010802100CL, 0x0919920202440101L, 0x06020A0202604050L,
+            0x4202083240260821L, 0x0118520260221008L, 0x00000C4402021001L, 0x1010006018020100L,
+            0x9600204C10130500L, 0x00C0810403000020L, 0x0002640420801401L, 0x8001040400900840L,
+            0x1002221004048000L, 0x0020808808420401L, 0x0100010080908040L, 0x2000800884040820L,
+            0x1000002020444B28L, 0x01180890D0008888L, 0x4090448800940100L, 0x0160380A00404240L,
+            0x5002042109101080L, 0x800800220D300800L, 0x0808200840441004L, 0x8008022006150402L,
+            0x2000000070020213L, 0x0202414119211100L, 0x8820620204180484L, 0x8012100115010208L
+    };
+
+    private static final int[][] DIRECCIONES_TORRE = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] DIRECCIONES_ALFIL = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    static {
+        inicializarSaltos();
+        tablaTorre = inicializarMagicos(DIRECCIONES_TORRE, MASCARA_TORRE, MAGICO_TORRE, DESPLAZAMIENTO_TORRE, INICIO_TORRE);
+        tablaAlfil = inicializarMagicos(DIRECCIONES_ALFIL, MASCARA_ALFIL, MAGICO_ALFIL, DESPLAZAMIENTO_ALFIL, INICIO_ALFIL);
+        inicializarLineas();
+    }
+
+    // ---- Consultas ----
+
+    public static long caballo(int casilla) {
+        return CABALLO[casilla];
+    }
+
+    public static long rey(int casilla) {
+        return REY[casilla];
+    }
+
+    public static long peon(int color, int casilla) {
+        return PEON[color][casilla];
+    }
+
+    public static long torre(int casilla, long ocupacion) {
+        return tablaTorre[INICIO_TORRE[casilla]
+                + (int) (((ocupacion & MASCARA_TORRE[casilla]) * MAGICO_TORRE[casilla]) >>> DESPLAZAMIENTO_TORRE[casilla])];
+    }
+
+    public static long alfil(int casilla, long ocupacion) {
+        return tablaAlfil[INICIO_ALFIL[casilla]
+                + (int) (((ocupacion & MASCARA_ALFIL[casilla]) * MAGICO_ALFIL[casilla]) >>> DESPLAZAMIENTO_ALFIL[casilla])];
+    }
+
+    public static long reina(int casilla, long ocupacion) {
+        return torre(casilla, ocupacion) | alfil(casilla, ocupacion);
+    }
+
+    // Ataques de una pieza que no es peón (para peones usar peon(color, casilla))
+    public static long dePieza(int tipo, int casilla, long ocupacion) {
+        switch (tipo) {
+            case Posicion.CABALLO: return CABALLO[casilla];
+            case Posicion.ALFIL:   return alfil(casilla, ocupacion);
+            case Posicion.TORRE:   return torre(casilla, ocupacion);
+            case Posicion.REINA:   return reina(casilla, ocupacion);
+            case Posicion.REY:     return REY[casilla];
+            default:               return 0L;
+        }
+    }
+
+    public static long entre(int a, int b) {
+        return ENTRE[a][b];
+    }
+
+    public static long linea(int a, int b) {
+        return LINEA[a][b];
+    }
+
+    // Todas las piezas (de ambos colores) que atacan la casilla con la ocupación dada
+    public static long atacantes(Posicion pos, int casilla, long ocupacion) {
+        return (PEON[Posicion.NEGRO][casilla] & pos.bitboard(Posicion.BLANCO, Posicion.PEON))
+                | (PEON[Posicion.BLANCO][casilla] & pos.bitboard(Posicion.NEGRO, Posicion.PEON))
+                | (CABALLO[casilla] & (pos.bitboard(Posicion.BLANCO, Posicion.CABALLO) | pos.bitboard(Posicion.NEGRO, Posicion.CABALLO)))
+                | (REY[casilla] & (pos.bitboard(Posicion.BLANCO, Posicion.REY) | pos.bitboard(Posicion.NEGRO, Posicion.REY)))
+                | (alfil(casilla, ocupacion) & (pos.bitboard(Posicion.BLANCO, Posicion.ALFIL) | pos.bitboard(Posicion.NEGRO, Posicion.ALFIL)
+                        | pos.bitboard(Posicion.BLANCO, Posicion.REINA) | pos.bitboard(Posicion.NEGRO, Posicion.REINA)))
+                | (torre(casilla, ocupacion) & (pos.bitboard(Posicion.BLANCO, Posicion.TORRE) | pos.bitboard(Posicion.NEGRO, Posicion.TORRE)
+                        | pos.bitboard(Posicion.BLANCO, Posicion.REINA) | pos.bitboard(Posicion.NEGRO, Posicion.REINA)));
+    }
+
+    // Verifica si alguna pieza del color atacante ataca la casilla
+    public static boolean casillaAtacada(Posicion pos, int casilla, int colorAtacante) {
+        return casillaAtacada(pos, casilla, colorAtacante, pos.ocupacion());
+    }
+
+    public static boolean casillaAtacada(Posicion pos, int casilla, int colorAtacante, long ocupacion) {
+        if ((PEON[colorAtacante ^ 1][casilla] & pos.bitboard(colorAtacante, Posicion.PEON)) != 0) return true;
+        if ((CABALLO[casilla] & pos.bitboard(colorAtacante, Posicion.CABALLO)) != 0) return true;
+        if ((REY[casilla] & pos.bitboard(colorAtacante, Posicion.REY)) != 0) return true;
+        long reinas = pos.bitboard(colorAtacante, Posicion.REINA);
+        if ((alfil(casilla, ocupacion) & (pos.bitboard(colorAtacante, Posicion.ALFIL) | reinas)) != 0) return true;
+        return (torre(casilla, ocupacion) & (pos.bitboard(colorAtacante, Posicion.TORRE) | reinas)) != 0;
+    }
+
+    // ---- Inicialización ----
+
+    private static void inicializarSaltos() {
+        int[][] saltosCaballo = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+        for (int c = 0; c < 64; c++) {
+            int fila = Posicion.fila(c);
+            int col = Posicion.columna(c);
+            for (int[] s : saltosCaballo) {
+                CABALLO[c] |= bitSiDentro(fila + s[0], col + s[1]);
+            }
+            for (int df = -1; df <= 1; df++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (df != 0 || dc != 0) {
+                        REY[c] |= bitSiDentro(fila + df, col + dc);
+                    }
+                }
+            }
+            // Las blancas avanzan hacia la fila 0 y las negras hacia la fila 7
+            PEON[Posicion.BLANCO][c] = bitSiDentro(fila - 1, col - 1) | bitSiDentro(fila - 1, col + 1);
+            PEON[Posicion.NEGRO][c] = bitSiDentro(fila + 1, col - 1) | bitSiDentro(fila + 1, col + 1);
+        }
+    }
+
+    private static long bitSiDentro(int fila, int col) {
+        if (fila < 0 || fila > 7 || col < 0 || col > 7) {
+            return 0L;
+        }
+        return Posicion.bit(Posicion.casilla(fila, col));
+    }
+
+    // Llena la tabla de ataques de cada casilla usando su número mágico
+    private static long[] inicializarMagicos(int[][] direcciones, long[] mascaras, long[] magicos,
+                                             int[] desplazamientos, int[] inicios) {
+        int total = 0;
+        for (int c = 0; c < 64; c++) {
+            mascaras[c] = mascaraRelevante(c, direcciones);
+            desplazamientos[c] = 64 - Long.bitCount(mascaras[c]);
+            inicios[c] = total;
+            total += 1 << Long.bitCount(mascaras[c]);
+        }
+
+        long[] tabla = new long[total];
+        for (int c = 0; c < 64; c++) {
+            long mascara = mascaras[c];
+            // Enumerar todos los subconjuntos de la máscara (truco de Carry-Rippler)
+            long sub = 0L;
+            do {
+                int indice = (int) ((sub * magicos[c]) >>> desplazamientos[c]);
+                tabla[inicios[c] + indice] = ataquesLentos(c, sub, direcciones);
+                sub = (sub - mascara) & mascara;
+            } while (sub != 0);
+        }
+        return tabla;
+    }
+
+    // Casillas cuya ocupación influye en los ataques (sin contar el borde final de cada rayo)
+    private static long mascaraRelevante(int casilla, int[][] direcciones) {
+        long mascara = 0L;
+        for (int[] d : direcciones) {
+            int fila = Posicion.fila(casilla) + d[0];
+            int col = Posicion.columna(casilla) + d[1];
+            while (fila + d[0] >= 0 && fila + d[0] <= 7 && col + d[1] >= 0 && col + d[1] <= 7) {
+                mascara |= Posicion.bit(Posicion.casilla(fila, col));
+                fila += d[0];
+                col += d[1];
+            }
+        }
+        return mascara;
+    }
+
+    // Recorre los rayos casilla por casilla; solo se usa para llenar las tablas
+    private static long ataquesLentos(int casilla, long ocupacion, int[][] direcciones) {
+        long ataques = 0L;
+        for (int[] d : direcciones) {
+            int fila = Posicion.fila(casilla) + d[0];
+            int col = Posicion.columna(casilla) + d[1];
+            while (fila >= 0 && fila <= 7 && col >= 0 && col <= 7) {
+                long b = Posicion.bit(Posicion.casilla(fila, col));
+                ataques |= b;
+                if ((ocupacion & b) != 0) {
+                    break;
+                }
+                fila += d[0];
+                col += d[1];
+            }
+        }
+        return ataques;
+    }
+
+    private static void inicializarLineas() {
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long ab = Posicion.bit(a) | Posicion.bit(b);
+                if ((torre(a, 0L) & Posicion.bit(b)) != 0) {
+                    ENTRE[a][b] = torre(a, ab) & torre(b, ab);
+                    LINEA[a][b] = (torre(a, 0L) & torre(b, 0L)) | ab;
+                } else if ((alfil(a, 0L) & Posicion.bit(b)) != 0) {
+                    ENTRE[a][b] = alfil(a, ab) & alfil(b, ab);
+                    LINEA[a][b] = (alfil(a, 0L) & alfil(b, 0L)) | ab;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+// Sprites de las piezas ya escalados al tamaño de casilla del tablero.
+// Los PNG de resources/ se decodifican una sola vez por proceso; cada tablero guarda las 12
+// piezas escaladas a su tamaño actual en imágenes compatibles con la pantalla, que se dibujan
+// sin conversión. Solo se vuelven a escalar cuando cambia el tamaño de la casilla.
+// Se usa desde el hilo de Swing.
+public class CacheIconos {
+
+    private static BufferedImage[] originales; // Indexadas por pieza (color * 6 + tipo)
+
+    private final BufferedImage[] escaladas = new BufferedImage[12];
+    private int tamano = -1;
+
+    // Imagen de la pieza a tamaño x tamaño píxeles (null si no se pudo leer el archivo)
+    public BufferedImage imagen(int pieza, int tamano) {
+        tamano = Math.max(tamano, 1);
+        if (tamano != this.tamano) {
+            escalar(tamano);
+        }
+        return escaladas[pieza];
+    }
+
+    private void escalar(int tamano) {
+        BufferedImage[] fuentes = originales();
+        for (int pieza = 0; pieza < 12; pieza++) {
+            escaladas[pieza] = fuentes[pieza] == null ? null : escalar(fuentes[pieza], tamano);
+        }
+        this.tamano = tamano;
+    }
+
+    private static synchronized BufferedImage[] originales() {
+        if (originales == null) {
+            originales = new BufferedImage[12];
+            for (int pieza = 0; pieza < 12; pieza++) {
+                String ruta = rutaImagen(pieza);
+                try {
+                    originales[pieza] = ImageIO.read(new File(ruta));
+                } catch (IOException e) {
+                    System.err.println("No se pudo leer " + ruta + ": " + e.getMessage());
+                }
+            }
+        }
+        return originales;
+    }
+
+    static String rutaImagen(int pieza) {
+        return "resources/" + Posicion.NOMBRE_TIPO[Posicion.tipoDe(pieza)] + "_"
+                + Posicion.NOMBRE_COLOR[Posicion.colorDe(pieza)] + ".png";
+    }
+
+    // Reduce a la mitad con interpolación bilineal mientras sobre más del doble y termina con un
+    // último paso al tamaño exacto: calidad parecida a SCALE_SMOOTH por una fracción del costo
+    private static BufferedImage escalar(BufferedImage fuente, int tamano) {
+        BufferedImage actual = fuente;
+        int ancho = fuente.getWidth();
+        int alto = fuente.getHeight();
+        do {
+            ancho = ancho / 2 >= tamano ? ancho / 2 : tamano;
+            alto = alto / 2 >= tamano ? alto / 2 : tamano;
+            BufferedImage siguiente = nuevaImagen(ancho, alto);
+            Graphics2D g = siguiente.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(actual, 0, 0, ancho, alto, null);
+            g.dispose();
+            actual = siguiente;
+        } while (ancho != tamano || alto != tamano);
+        return actual;
+    }
+
+    private static BufferedImage nuevaImagen(int ancho, int alto) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(ancho, alto, Transparency.TRANSLUCENT);
+    }
+}
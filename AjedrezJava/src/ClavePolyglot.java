@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Claves y movimientos en el formato de los libros Polyglot (.bin).
+// La clave es un XOR de 781 números de 64 bits: 768 por pieza y casilla, 4 por derechos de enroque,
+// 8 por columna de captura al paso (solo si un peón del bando que mueve puede capturar) y 1 si
+// mueven las blancas. Para leer libros de otros programas hacen falta los números originales de
+// Polyglot ("Random64"): se leen de -Dajedrez.libro.claves o de resources/polyglot_random64.txt
+// (781 números en hexadecimal, separados por espacios o comas, o el arreglo de C de Polyglot tal
+// cual, con sus U64(0x...)). Se comprueban contra la clave de la posición inicial de la especificación.
+// Sin ese archivo, o si no pasa la comprobación, se usan números propios: los libros que crea
+// CrearLibro funcionan igual, pero no son intercambiables con los de otros programas.
+public class ClavePolyglot {
+
+    static final int CANTIDAD = 781;
+    private static final int ENROQUE = 768;
+    private static final int AL_PASO = 772;
+    private static final int TURNO = 780;
+
+    private static final String ARCHIVO_POR_DEFECTO = "resources/polyglot_random64.txt";
+
+    // Clave de la posición inicial según la especificación de Polyglot: comprueba que las claves leídas son las suyas
+    private static final long CLAVE_INICIAL = 0x463B96181691FC9CL;
+
+    private static final Pattern HEXADECIMAL_C = Pattern.compile("0[xX]([0-9a-fA-F]{1,16})");
+    private static final Pattern HEXADECIMAL = Pattern.compile("(?<![0-9a-zA-Z_])([0-9a-fA-F]{1,16})(?![0-9a-zA-Z_])");
+
+    private static final long[] ALEATORIOS = new long[CANTIDAD];
+    private static final boolean ORIGINALES;
+
+    static {
+        String ruta = System.getProperty("ajedrez.libro.claves", ARCHIVO_POR_DEFECTO);
+        ORIGINALES = leerAleatorios(Paths.get(ruta));
+        if (!ORIGINALES) {
+            long semilla = 0x5DEECE66DL;
+            for (int i = 0; i < CANTIDAD; i++) {
+                semilla += 0x9E3779B97F4A7C15L;
+                long z = (semilla ^ (semilla >>> 30)) * 0xBF58476D1CE4E5B9L;
+                z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+                ALEATORIOS[i] = z ^ (z >>> 31);
+            }
+        }
+    }
+
+    // Si se están usando los números de Polyglot (libros compatibles con otros programas)
+    public static boolean compatible() {
+        return ORIGINALES;
+    }
+
+    public static long calcular(Posicion pos) {
+        long clave = 0L;
+        long ocupadas = pos.ocupacion();
+        while (ocupadas != 0) {
+            int c = Long.numberOfTrailingZeros(ocupadas);
+            ocupadas &= ocupadas - 1;
+            int pieza = pos.piezaEn(c);
+            // Polyglot numera peón negro, peón blanco, caballo negro... y las filas desde la 1
+            int tipo = 2 * Posicion.tipoDe(pieza) + (Posicion.colorDe(pieza) == Posicion.BLANCO ? 1 : 0);
+            clave ^= ALEATORIOS[64 * tipo + (c ^ 56)];
+        }
+        int enroques = pos.enroques(); // Mismo orden: blanco corto, blanco largo, negro corto, negro largo
+        while (enroques != 0) {
+            clave ^= ALEATORIOS[ENROQUE + Integer.numberOfTrailingZeros(enroques)];
+            enroques &= enroques - 1;
+        }
+        int alPaso = pos.casillaAlPaso();
+        if (alPaso != -1 && (Ataques.peon(pos.turno() ^ 1, alPaso) & pos.bitboard(pos.turno(), Posicion.PEON)) != 0) {
+            clave ^= ALEATORIOS[AL_PASO + Posicion.columna(alPaso)];
+        }
+        if (pos.turno() == Posicion.BLANCO) {
+            clave ^= ALEATORIOS[TURNO];
+        }
+        return clave;
+    }
+
+    // Movimiento de 16 bits de Polyglot: destino en los bits 0-5, origen en 6-11 (a1 = 0) y pieza
+    // de coronación en 12-14 (1 = caballo ... 4 = reina). El enroque se escribe como rey que toma su torre.
+    public static int codificar(int movimiento) {
+        int desde = Movimiento.desde(movimiento);
+        int hasta = Movimiento.hasta(movimiento);
+        int coronacion = 0;
+        if (Movimiento.especial(movimiento) == Movimiento.ENROQUE) {
+            hasta = Posicion.casilla(Posicion.fila(hasta), Posicion.columna(hasta) == 6 ? 7 : 0);
+        } else if (Movimiento.especial(movimiento) == Movimiento.CORONACION) {
+            coronacion = Movimiento.piezaCoronacion(movimiento) - Posicion.CABALLO + 1;
+        }
+        return (hasta ^ 56) | ((desde ^ 56) << 6) | (coronacion << 12);
+    }
+
+    // El movimiento legal (de la lista dada) que corresponde a uno de Polyglot; Movimiento.NINGUNO si no está
+    public static int decodificar(int polyglot, int[] legales, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            if (codificar(legales[i]) == polyglot) {
+                return legales[i];
+            }
+        }
+        return Movimiento.NINGUNO;
+    }
+
+    private static boolean leerAleatorios(Path archivo) {
+        if (!Files.isRegularFile(archivo)) {
+            return false;
+        }
+        try {
+            String texto = new String(Files.readAllBytes(archivo), StandardCharsets.UTF_8)
+                    .replaceAll("(?s)/\\*.*?\\*/|//[^\\n]*", " ");
+            // Con prefijo 0x (el arreglo de C, con o sin U64(...)) solo cuentan esos números, así las
+            // declaraciones como "Random64[781]" no se confunden con claves; si no, números sueltos
+            Matcher numeros = (texto.contains("0x") || texto.contains("0X") ? HEXADECIMAL_C : HEXADECIMAL).matcher(texto);
+            int n = 0;
+            while (n < CANTIDAD && numeros.find()) {
+                ALEATORIOS[n++] = Long.parseUnsignedLong(numeros.group(1), 16);
+            }
+            if (n < CANTIDAD) {
+                System.err.println("Claves de Polyglot incompletas en " + archivo + ": " + n + " de " + CANTIDAD);
+                return false;
+            }
+            if (calcular(Posicion.inicial()) != CLAVE_INICIAL) {
+                System.err.println("Las claves de " + archivo + " no son las de Polyglot (la posición inicial no da "
+                        + Long.toHexString(CLAVE_INICIAL) + "); se usan las propias");
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("No se pudo leer " + archivo + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+public class ConfiguracionMotor {
+
+    // Tamaño de la tabla de transposición en MB (se redondea hacia abajo a una potencia de dos)
+    public int tablaMb = 16;
+
+    // Tamaño de la tabla de peones de cada hilo en KB
+    public int tablaPeonesKb = 512;
+
+    // Hilos de búsqueda (Lazy SMP); por defecto uno por núcleo
+    public int hilos = Runtime.getRuntime().availableProcessors();
+
+    // Tiempo de pensamiento del bot por jugada, en milisegundos
+    public long tiempoMs = MotorBusqueda.TIEMPO_POR_DEFECTO_MS;
+
+    // Ponderar: mientras el humano piensa, el bot busca en la posición tras la respuesta que espera
+    public boolean ponderar = false;
+
+    // Libro de aperturas Polyglot (.bin); null para pensar desde la primera jugada
+    public String libro = null;
+
+    // Directorio con tablas de finales (GenerarTablas); null para no usarlas
+    public String tablasFinales = null;
+
+    // Búsqueda selectiva: cada técnica se puede apagar para medir su efecto
+    public boolean movimientoNulo = true;       // Poda por movimiento nulo
+    public boolean reduccionesTardias = true;   // LMR: los movimientos tardíos se buscan con menos profundidad
+    public boolean futilidad = true;            // Poda de futilidad y de futilidad inversa cerca de las hojas
+    public boolean extensionJaque = true;       // Un ply más cuando el bando que mueve está en jaque
+    public boolean ventanaAspiracion = true;    // Ventana estrecha alrededor de la puntuación anterior
+
+    // Lee la configuración de las propiedades del sistema, p. ej. java -Dajedrez.tt.mb=64 -Dajedrez.hilos=4 -Dajedrez.lmr=false ...
+    public static ConfiguracionMotor desdePropiedades() {
+        ConfiguracionMotor config = new ConfiguracionMotor();
+        config.tablaMb = Integer.getInteger("ajedrez.tt.mb", config.tablaMb);
+        config.tablaPeonesKb = Integer.getInteger("ajedrez.peones.kb", config.tablaPeonesKb);
+        config.hilos = Integer.getInteger("ajedrez.hilos", config.hilos);
+        config.tiempoMs = Long.getLong("ajedrez.tiempo.ms", config.tiempoMs);
+        config.libro = System.getProperty("ajedrez.libro", config.libro);
+        config.tablasFinales = System.getProperty("ajedrez.tablas", config.tablasFinales);
+        config.ponderar = bandera("ajedrez.ponder", config.ponderar);
+        config.movimientoNulo = bandera("ajedrez.nulo", config.movimientoNulo);
+        config.reduccionesTardias = bandera("ajedrez.lmr", config.reduccionesTardias);
+        config.futilidad = bandera("ajedrez.futilidad", config.futilidad);
+        config.extensionJaque = bandera("ajedrez.extension", config.extensionJaque);
+        config.ventanaAspiracion = bandera("ajedrez.aspiracion", config.ventanaAspiracion);
+        return config;
+    }
+
+    private static boolean bandera(String propiedad, boolean porDefecto) {
+        String valor = System.getProperty(propiedad);
+        return valor == null ? porDefecto : Boolean.parseBoolean(valor);
+    }
+}
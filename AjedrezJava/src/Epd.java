@@ -0,0 +1,164 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Una línea EPD: los cuatro primeros campos de un FEN y después operaciones "opcode operandos;",
+// p. ej. 'r1b1k2r/... w kq - bm Nf6+; id "WAC.012";'. También acepta un FEN completo, con o sin
+// operaciones detrás. Las operaciones se guardan tal como están escritas (con las comillas) y en
+// el mismo orden, así una línea leída y vuelta a escribir no cambia salvo por lo que se agregue.
+public class Epd {
+
+    private final Posicion posicion;
+    private final Map<String, String> operaciones = new LinkedHashMap<>();
+
+    private Epd(Posicion posicion) {
+        this.posicion = posicion;
+    }
+
+    public static Epd desdePosicion(Posicion posicion) {
+        return new Epd(posicion.copia());
+    }
+
+    // Lanza IllegalArgumentException si la posición o las operaciones no se pueden leer.
+    // Las operaciones hmvc y fmvn dan los contadores de jugadas de la posición.
+    public static Epd leer(String linea) {
+        int[] fin = {0};
+        StringBuilder fen = new StringBuilder(90);
+        for (int campo = 0; campo < 4; campo++) {
+            String texto = siguienteCampo(linea, fin);
+            if (texto.isEmpty()) {
+                throw new IllegalArgumentException("EPD incompleto: " + linea);
+            }
+            fen.append(campo == 0 ? "" : " ").append(texto);
+        }
+        // Un FEN completo trae los dos contadores después de la casilla al paso
+        int despuesCampos = fin[0];
+        String cincuenta = siguienteCampo(linea, fin);
+        String jugada = siguienteCampo(linea, fin);
+        boolean conContadores = esNumero(cincuenta) && esNumero(jugada);
+        if (!conContadores) {
+            fin[0] = despuesCampos;
+        }
+
+        Map<String, String> leidas = new LinkedHashMap<>();
+        leerOperaciones(linea, fin[0], leidas);
+        if (conContadores) {
+            fen.append(' ').append(cincuenta).append(' ').append(jugada);
+        } else {
+            String hmvc = leidas.get("hmvc");
+            String fmvn = leidas.get("fmvn");
+            fen.append(' ').append(esNumero(hmvc) ? hmvc : "0").append(' ').append(esNumero(fmvn) ? fmvn : "1");
+        }
+        Epd epd = new Epd(Posicion.desdeFen(fen.toString()));
+        epd.operaciones.putAll(leidas);
+        return epd;
+    }
+
+    public Posicion posicion() {
+        return posicion;
+    }
+
+    // Los operandos de una operación tal como están escritos, o null si no está
+    public String operacion(String opcode) {
+        return operaciones.get(opcode);
+    }
+
+    // Los operandos sin las comillas ("WAC.001" -> WAC.001)
+    public String texto(String opcode) {
+        String valor = operaciones.get(opcode);
+        if (valor != null && valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            return valor.substring(1, valor.length() - 1);
+        }
+        return valor;
+    }
+
+    // Agrega o reemplaza una operación; los operandos se escriben tal cual (con comillas si hacen falta)
+    public void poner(String opcode, String operandos) {
+        operaciones.put(opcode, operandos);
+    }
+
+    public void quitar(String opcode) {
+        operaciones.remove(opcode);
+    }
+
+    // La línea EPD: los cuatro campos de la posición y las operaciones
+    public String escribir() {
+        String fen = posicion.aFen();
+        int espacios = 0;
+        int corte = 0;
+        while (espacios < 4) {
+            corte = fen.indexOf(' ', corte) + 1;
+            espacios++;
+        }
+        StringBuilder s = new StringBuilder(fen.length() + 16 * operaciones.size());
+        s.append(fen, 0, corte - 1);
+        for (Map.Entry<String, String> op : operaciones.entrySet()) {
+            s.append(' ').append(op.getKey());
+            if (!op.getValue().isEmpty()) {
+                s.append(' ').append(op.getValue());
+            }
+            s.append(';');
+        }
+        return s.toString();
+    }
+
+    @Override
+    public String toString() {
+        return escribir();
+    }
+
+    // Separa "op a b; op2 "x; y";" en operaciones; un ';' entre comillas no cierra la operación
+    private static void leerOperaciones(String linea, int inicio, Map<String, String> operaciones) {
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = inicio; i <= linea.length(); i++) {
+            char c = i < linea.length() ? linea.charAt(i) : ';';
+            if (c == '"') {
+                entreComillas = !entreComillas;
+            }
+            if (c != ';' || entreComillas) {
+                actual.append(c);
+                continue;
+            }
+            String op = actual.toString().trim();
+            actual.setLength(0);
+            if (op.isEmpty()) {
+                continue;
+            }
+            int espacio = op.indexOf(' ');
+            String opcode = espacio < 0 ? op : op.substring(0, espacio);
+            if (!Character.isLetter(opcode.charAt(0))) {
+                throw new IllegalArgumentException("Operación EPD inválida: " + op);
+            }
+            operaciones.put(opcode, espacio < 0 ? "" : op.substring(espacio + 1).trim());
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("EPD con comillas sin cerrar: " + linea);
+        }
+    }
+
+    // El campo separado por espacios que empieza en fin[0]; deja fin[0] justo después
+    private static String siguienteCampo(String linea, int[] fin) {
+        int i = fin[0];
+        while (i < linea.length() && Character.isWhitespace(linea.charAt(i))) {
+            i++;
+        }
+        int inicio = i;
+        while (i < linea.length() && !Character.isWhitespace(linea.charAt(i))) {
+            i++;
+        }
+        fin[0] = i;
+        return linea.substring(inicio, i);
+    }
+
+    private static boolean esNumero(String texto) {
+        if (texto == null || texto.isEmpty() || texto.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) < '0' || texto.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,329 @@
+// Evaluación de la posición. El material y las tablas pieza-casilla los mantiene Posicion de forma
+// incremental en cada movimiento, así que esa parte cuesta O(1) en cada hoja. Encima se calculan
+// movilidad, seguridad del rey y estructura de peones.
+//
+// Cada término tiene dos valores, uno para el medio juego y otro para el final, empaquetados en un
+// int (ver puntaje()). La puntuación final interpola entre ambos según la fase: cuánto material
+// queda sin contar peones ni reyes.
+public class Evaluacion {
+
+    // Valor de cada tipo de pieza en centipeones (el rey no se cuenta); lo usan el orden de movimientos y SEE
+    public static final int[] VALOR = {100, 320, 330, 500, 900, 0};
+
+    public static final int FASE_TOTAL = 24; // Fase con todas las piezas en el tablero
+
+    // Aporte de cada pieza (índice color * 6 + tipo) a la fase
+    static final int[] FASE = {0, 1, 1, 2, 4, 0, 0, 1, 1, 2, 4, 0};
+
+    // Material + tabla pieza-casilla, empaquetado y con signo (las negras restan), por pieza y casilla
+    static final int[][] PST = new int[12][64];
+
+    private static final int[] MATERIAL_MEDIO = {100, 320, 330, 500, 900, 0};
+    private static final int[] MATERIAL_FINAL = {120, 300, 320, 540, 960, 0};
+
+    // Tablas desde el punto de vista de las blancas, en el mismo orden que las casillas (a8 primero).
+    // Para las negras se usa la casilla reflejada (casilla ^ 56).
+    private static final int[][] TABLA_MEDIO = {
+        { // Peón
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0},
+        { // Caballo
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50},
+        { // Alfil
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20},
+        { // Torre
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0},
+        { // Reina
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20},
+        { // Rey: a resguardo detrás de los peones
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20},
+    };
+
+    private static final int[][] TABLA_FINAL = {
+        { // Peón: cuanto más avanzado, mejor
+              0,   0,   0,   0,   0,   0,   0,   0,
+             80,  80,  80,  80,  80,  80,  80,  80,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             30,  30,  30,  30,  30,  30,  30,  30,
+             15,  15,  15,  15,  15,  15,  15,  15,
+              5,   5,   5,   5,   5,   5,   5,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0},
+        { // Caballo
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50},
+        { // Alfil
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,  10,  15,  15,  10,   5, -10,
+            -10,   5,  10,  15,  15,  10,   5, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20},
+        { // Torre
+              5,   5,   5,   5,   5,   5,   5,   5,
+             10,  10,  10,  10,  10,  10,  10,  10,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0},
+        { // Reina
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+            -10,   5,  10,  10,  10,  10,   5, -10,
+             -5,   5,  10,  15,  15,  10,   5,  -5,
+             -5,   5,  10,  15,  15,  10,   5,  -5,
+            -10,   5,  10,  10,  10,  10,   5, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20},
+        { // Rey: al centro en el final
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50},
+    };
+
+    // Movilidad: por cada casilla alcanzable por encima (o por debajo) de la cantidad típica
+    private static final int[] MOVILIDAD_BASE = {0, 4, 6, 7, 13, 0};
+    private static final int[] MOVILIDAD = {0, puntaje(4, 4), puntaje(5, 5), puntaje(2, 4), puntaje(1, 2), 0};
+
+    // Seguridad del rey: peso de cada tipo de pieza que ataca la zona del rey, y escudo de peones
+    private static final int[] PESO_ATAQUE = {0, 2, 2, 3, 5, 0};
+    private static final int ESCUDO_CERCA = 12; // Solo cuenta en el medio juego
+    private static final int ESCUDO_LEJOS = 6;
+
+    // Estructura de peones
+    private static final int DOBLADO = puntaje(-10, -20);
+    private static final int AISLADO = puntaje(-10, -15);
+    private static final int RETRASADO = puntaje(-8, -10);
+    private static final int[] PASADO = { // Por fila relativa (0 = fila de origen del bando)
+        0, puntaje(5, 10), puntaje(10, 15), puntaje(15, 25), puntaje(25, 45), puntaje(40, 70), puntaje(60, 110), 0};
+
+    private static final long COLUMNA_A = 0x0101010101010101L;
+    private static final long COLUMNA_H = COLUMNA_A << 7;
+
+    // Máscaras por color y casilla: casillas delante en la misma columna, y delante en la misma
+    // columna y las vecinas (para peones pasados). ADYACENTES por columna para peones aislados.
+    private static final long[][] FRENTE = new long[2][64];
+    private static final long[][] PASO = new long[2][64];
+    private static final long[] ADYACENTES = new long[8];
+
+    static {
+        for (int tipo = Posicion.PEON; tipo <= Posicion.REY; tipo++) {
+            for (int c = 0; c < 64; c++) {
+                int blanco = puntaje(MATERIAL_MEDIO[tipo] + TABLA_MEDIO[tipo][c], MATERIAL_FINAL[tipo] + TABLA_FINAL[tipo][c]);
+                int negro = puntaje(MATERIAL_MEDIO[tipo] + TABLA_MEDIO[tipo][c ^ 56], MATERIAL_FINAL[tipo] + TABLA_FINAL[tipo][c ^ 56]);
+                PST[Posicion.pieza(Posicion.BLANCO, tipo)][c] = blanco;
+                PST[Posicion.pieza(Posicion.NEGRO, tipo)][c] = -negro;
+            }
+        }
+        for (int col = 0; col < 8; col++) {
+            ADYACENTES[col] = (col > 0 ? COLUMNA_A << (col - 1) : 0) | (col < 7 ? COLUMNA_A << (col + 1) : 0);
+        }
+        for (int c = 0; c < 64; c++) {
+            int fila = Posicion.fila(c);
+            int col = Posicion.columna(c);
+            for (int f = 0; f < 8; f++) {
+                long enFila = 0xFFL << (f * 8);
+                long columnas = (COLUMNA_A << col) | ADYACENTES[col];
+                if (f < fila) { // Las blancas avanzan hacia la fila 0
+                    FRENTE[Posicion.BLANCO][c] |= enFila & (COLUMNA_A << col);
+                    PASO[Posicion.BLANCO][c] |= enFila & columnas;
+                }
+                if (f > fila) {
+                    FRENTE[Posicion.NEGRO][c] |= enFila & (COLUMNA_A << col);
+                    PASO[Posicion.NEGRO][c] |= enFila & columnas;
+                }
+            }
+        }
+    }
+
+    // Empaqueta medio juego y final en un int; la suma de empaquetados empaqueta la suma
+    static int puntaje(int medio, int fin) {
+        return (fin << 16) + medio;
+    }
+
+    static int medio(int puntaje) {
+        return (short) puntaje;
+    }
+
+    static int fin(int puntaje) {
+        return (short) ((puntaje + 0x8000) >> 16);
+    }
+
+    // Puntuación desde el punto de vista del bando que mueve
+    public static int evaluar(Posicion pos) {
+        return evaluar(pos, null);
+    }
+
+    // Igual, pero toma la estructura de peones y los escudos de la tabla (si no es null)
+    public static int evaluar(Posicion pos, TablaPeones peones) {
+        int total = pos.puntajePst()
+                + movilidadYAtaque(pos, Posicion.BLANCO) - movilidadYAtaque(pos, Posicion.NEGRO);
+        if (peones != null) {
+            int i = peones.buscar(pos);
+            total += peones.estructura(i)
+                    + escudoRey(pos, Posicion.BLANCO, peones, i) - escudoRey(pos, Posicion.NEGRO, peones, i);
+        } else {
+            total += estructuraPeones(pos, Posicion.BLANCO) - estructuraPeones(pos, Posicion.NEGRO)
+                    + escudoRey(pos, Posicion.BLANCO, null, 0) - escudoRey(pos, Posicion.NEGRO, null, 0);
+        }
+        int fase = Math.min(pos.fase(), FASE_TOTAL);
+        int puntuacion = (medio(total) * fase + fin(total) * (FASE_TOTAL - fase)) / FASE_TOTAL;
+        return pos.turno() == Posicion.BLANCO ? puntuacion : -puntuacion;
+    }
+
+    // Casillas atacadas por los peones de un color
+    static long ataquesPeones(long peones, int color) {
+        if (color == Posicion.BLANCO) {
+            return ((peones & ~COLUMNA_A) >>> 9) | ((peones & ~COLUMNA_H) >>> 7);
+        }
+        return ((peones & ~COLUMNA_A) << 7) | ((peones & ~COLUMNA_H) << 9);
+    }
+
+    // Movilidad de caballos, alfiles, torres y reinas (sin contar casillas propias ni las que
+    // atacan los peones rivales) y presión sobre la zona del rey rival
+    private static int movilidadYAtaque(Posicion pos, int color) {
+        int rival = color ^ 1;
+        long ocupacion = pos.ocupacion();
+        long disponibles = ~pos.ocupacion(color) & ~ataquesPeones(pos.bitboard(rival, Posicion.PEON), rival);
+        int reyRival = pos.casillaRey(rival);
+        long zonaRey = reyRival == -1 ? 0L : Ataques.rey(reyRival) | Posicion.bit(reyRival);
+
+        int total = 0;
+        int atacantes = 0;
+        int pesoAtaque = 0;
+        for (int tipo = Posicion.CABALLO; tipo <= Posicion.REINA; tipo++) {
+            long piezas = pos.bitboard(color, tipo);
+            while (piezas != 0) {
+                int c = Long.numberOfTrailingZeros(piezas);
+                piezas &= piezas - 1;
+                long ataques = Ataques.dePieza(tipo, c, ocupacion);
+                total += MOVILIDAD[tipo] * (Long.bitCount(ataques & disponibles) - MOVILIDAD_BASE[tipo]);
+                long sobreRey = ataques & zonaRey;
+                if (sobreRey != 0) {
+                    atacantes++;
+                    pesoAtaque += PESO_ATAQUE[tipo] * Long.bitCount(sobreRey);
+                }
+            }
+        }
+        // Un solo atacante rara vez es peligroso; con varios el peligro crece rápido
+        if (atacantes >= 2 && pos.bitboard(color, Posicion.REINA) != 0) {
+            total += puntaje(Math.min(pesoAtaque * pesoAtaque, 500), 0);
+        }
+        return total;
+    }
+
+    // Peones doblados, aislados, retrasados y pasados de un color
+    static int estructuraPeones(Posicion pos, int color) {
+        int rival = color ^ 1;
+        long propios = pos.bitboard(color, Posicion.PEON);
+        long rivales = pos.bitboard(rival, Posicion.PEON);
+        long ataquesRivales = ataquesPeones(rivales, rival);
+        int avance = color == Posicion.BLANCO ? -8 : 8;
+
+        int total = 0;
+        long peones = propios;
+        while (peones != 0) {
+            int c = Long.numberOfTrailingZeros(peones);
+            peones &= peones - 1;
+            int col = Posicion.columna(c);
+
+            if ((FRENTE[color][c] & propios) != 0) {
+                total += DOBLADO;
+            }
+            if ((ADYACENTES[col] & propios) == 0) {
+                total += AISLADO;
+            } else if ((PASO[rival][c + avance] & ADYACENTES[col] & propios) == 0
+                    && (ataquesRivales & Posicion.bit(c + avance)) != 0) {
+                // Ningún peón vecino a su altura o detrás que lo apoye, y no puede avanzar sin ser capturado
+                total += RETRASADO;
+            }
+            if ((PASO[color][c] & rivales) == 0 && (FRENTE[color][c] & propios) == 0) {
+                int filaRelativa = color == Posicion.BLANCO ? 7 - Posicion.fila(c) : Posicion.fila(c);
+                total += PASADO[filaRelativa];
+            }
+        }
+        return total;
+    }
+
+    // Escudo de peones: solo cuenta con el rey en sus dos primeras filas, y se mide como si estuviera
+    // en la fila de origen (así depende solo de los peones y de la columna del rey, y se puede guardar
+    // en la tabla de peones)
+    private static int escudoRey(Posicion pos, int color, TablaPeones peones, int indice) {
+        int rey = pos.casillaRey(color);
+        if (rey == -1) {
+            return 0;
+        }
+        int filaRelativa = color == Posicion.BLANCO ? 7 - Posicion.fila(rey) : Posicion.fila(rey);
+        if (filaRelativa > 1) {
+            return 0;
+        }
+        int col = Posicion.columna(rey);
+        int valor = peones != null ? peones.escudo(indice, color, col) : escudoDesdeOrigen(pos, color, col);
+        return puntaje(valor, 0);
+    }
+
+    // Valor (medio juego) de los peones propios en las dos filas delante de la fila de origen,
+    // en la columna dada y sus vecinas
+    static int escudoDesdeOrigen(Posicion pos, int color, int col) {
+        long peones = pos.bitboard(color, Posicion.PEON) & ((COLUMNA_A << col) | ADYACENTES[col]);
+        long cerca = 0xFFL << ((color == Posicion.BLANCO ? 6 : 1) * 8);
+        long lejos = 0xFFL << ((color == Posicion.BLANCO ? 5 : 2) * 8);
+        return ESCUDO_CERCA * Long.bitCount(peones & cerca) + ESCUDO_LEJOS * Long.bitCount(peones & lejos);
+    }
+}
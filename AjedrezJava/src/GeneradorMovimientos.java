@@ -0,0 +1,246 @@
+public class GeneradorMovimientos {
+
+    public static final int MAX_MOVIMIENTOS = 256;
+
+    // Qué movimientos generar: todos, solo tácticos (capturas, al paso y coronaciones) o solo tranquilos
+    public static final int TODOS = 0;
+    public static final int TACTICOS = 1;
+    public static final int TRANQUILOS = 2;
+
+    // Genera solo movimientos legales en la lista y devuelve cuántos hay
+    public static int generarLegales(Posicion pos, int[] lista) {
+        return generar(pos, lista, TODOS, -1L);
+    }
+
+    public static int generarTacticos(Posicion pos, int[] lista) {
+        return generar(pos, lista, TACTICOS, -1L);
+    }
+
+    public static int generarTranquilos(Posicion pos, int[] lista) {
+        return generar(pos, lista, TRANQUILOS, -1L);
+    }
+
+    // Comprueba si un movimiento (p. ej. un killer de otra posición) es legal aquí,
+    // generando solo los movimientos de la pieza de origen
+    public static boolean esLegal(Posicion pos, int movimiento, int[] auxiliar) {
+        int desde = Movimiento.desde(movimiento);
+        int pieza = pos.piezaEn(desde);
+        if (movimiento == Movimiento.NINGUNO || pieza == Posicion.VACIA || Posicion.colorDe(pieza) != pos.turno()) {
+            return false;
+        }
+        int n = generar(pos, auxiliar, TODOS, Posicion.bit(desde));
+        for (int i = 0; i < n; i++) {
+            if (auxiliar[i] == movimiento) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Movimiento táctico: captura (incluida al paso) o coronación
+    public static boolean esTactico(Posicion pos, int movimiento) {
+        return pos.piezaEn(Movimiento.hasta(movimiento)) != Posicion.VACIA
+                || Movimiento.especial(movimiento) == Movimiento.AL_PASO
+                || Movimiento.especial(movimiento) == Movimiento.CORONACION;
+    }
+
+    // Calcula una vez por posición las piezas que dan jaque, las clavadas y la máscara de evasión,
+    // así no hace falta simular cada movimiento para saber si deja al rey en jaque.
+    // Solo se generan movimientos de la etapa pedida y de piezas dentro de origenes.
+    private static int generar(Posicion pos, int[] lista, int etapa, long origenes) {
+        int propio = pos.turno();
+        int rival = propio ^ 1;
+        int rey = pos.casillaRey(propio);
+        long ocupacion = pos.ocupacion();
+        long propias = pos.ocupacion(propio);
+        long rivales = pos.ocupacion(rival);
+        int n = 0;
+
+        if (rey == -1) {
+            return 0;
+        }
+
+        long jaques = Ataques.atacantes(pos, rey, ocupacion) & rivales;
+        long clavadas = piezasClavadas(pos, rey, propio);
+
+        // Casillas destino de la etapa (los peones se filtran aparte por las coronaciones)
+        long filtro = etapa == TACTICOS ? rivales : etapa == TRANQUILOS ? ~ocupacion : -1L;
+
+        // Movimientos del rey: la casilla destino no puede quedar atacada (sin contar al propio rey como bloqueo)
+        long sinRey = ocupacion ^ Posicion.bit(rey);
+        long destinosRey = (origenes & Posicion.bit(rey)) != 0 ? Ataques.rey(rey) & ~propias & filtro : 0L;
+        while (destinosRey != 0) {
+            int hasta = Long.numberOfTrailingZeros(destinosRey);
+            destinosRey &= destinosRey - 1;
+            if (!Ataques.casillaAtacada(pos, hasta, rival, sinRey)) {
+                lista[n++] = Movimiento.crear(rey, hasta);
+            }
+        }
+
+        // Jaque doble: solo el rey puede moverse
+        if (Long.bitCount(jaques) > 1) {
+            return n;
+        }
+
+        // Con un jaque solo valen capturar al atacante o interponerse
+        long mascara = ~propias;
+        if (jaques != 0) {
+            int atacante = Long.numberOfTrailingZeros(jaques);
+            mascara = jaques | Ataques.entre(rey, atacante);
+        } else if (etapa != TACTICOS && (origenes & Posicion.bit(rey)) != 0) {
+            n = generarEnroques(pos, propio, rey, lista, n);
+        }
+
+        // Caballos, alfiles, torres y reinas
+        for (int tipo = Posicion.CABALLO; tipo <= Posicion.REINA; tipo++) {
+            long piezas = pos.bitboard(propio, tipo) & origenes;
+            while (piezas != 0) {
+                int desde = Long.numberOfTrailingZeros(piezas);
+                piezas &= piezas - 1;
+                long destinos = Ataques.dePieza(tipo, desde, ocupacion) & mascara & filtro;
+                if ((clavadas & Posicion.bit(desde)) != 0) {
+                    destinos &= Ataques.linea(rey, desde); // Una pieza clavada solo se mueve sobre la línea del rey
+                }
+                while (destinos != 0) {
+                    int hasta = Long.numberOfTrailingZeros(destinos);
+                    destinos &= destinos - 1;
+                    lista[n++] = Movimiento.crear(desde, hasta);
+                }
+            }
+        }
+
+        return generarPeones(pos, propio, rey, mascara, clavadas, etapa, origenes, lista, n);
+    }
+
+    // Cuántos movimientos legales hay; auxiliar es un buffer del que llama (se sobrescribe)
+    public static int contarLegales(Posicion pos, int[] auxiliar) {
+        return generarLegales(pos, auxiliar);
+    }
+
+    // Jaque mate: el bando que mueve está en jaque y no tiene movimientos legales
+    public static boolean esJaqueMate(Posicion pos, int[] auxiliar) {
+        return enJaque(pos) && contarLegales(pos, auxiliar) == 0;
+    }
+
+    // Ahogado: el bando que mueve no está en jaque pero no tiene movimientos legales
+    public static boolean esAhogado(Posicion pos, int[] auxiliar) {
+        return !enJaque(pos) && contarLegales(pos, auxiliar) == 0;
+    }
+
+    public static boolean enJaque(Posicion pos) {
+        int rey = pos.casillaRey(pos.turno());
+        return rey != -1 && Ataques.casillaAtacada(pos, rey, pos.turno() ^ 1);
+    }
+
+    // Piezas propias que son la única pieza entre el rey y una pieza deslizante rival
+    public static long piezasClavadas(Posicion pos, int rey, int propio) {
+        int rival = propio ^ 1;
+        long rivales = pos.ocupacion(rival);
+        long reinas = pos.bitboard(rival, Posicion.REINA);
+        long francotiradores = (Ataques.torre(rey, rivales) & (pos.bitboard(rival, Posicion.TORRE) | reinas))
+                | (Ataques.alfil(rey, rivales) & (pos.bitboard(rival, Posicion.ALFIL) | reinas));
+        long clavadas = 0L;
+        while (francotiradores != 0) {
+            int s = Long.numberOfTrailingZeros(francotiradores);
+            francotiradores &= francotiradores - 1;
+            long entre = Ataques.entre(rey, s) & pos.ocupacion();
+            if (Long.bitCount(entre) == 1 && (entre & pos.ocupacion(propio)) != 0) {
+                clavadas |= entre;
+            }
+        }
+        return clavadas;
+    }
+
+    private static int generarEnroques(Posicion pos, int propio, int rey, int[] lista, int n) {
+        int fila = propio == Posicion.BLANCO ? 7 : 0;
+        if (rey != Posicion.casilla(fila, 4)) {
+            return n;
+        }
+        int corto = propio == Posicion.BLANCO ? Posicion.ENROQUE_BLANCO_CORTO : Posicion.ENROQUE_NEGRO_CORTO;
+        int largo = propio == Posicion.BLANCO ? Posicion.ENROQUE_BLANCO_LARGO : Posicion.ENROQUE_NEGRO_LARGO;
+        int torre = Posicion.pieza(propio, Posicion.TORRE);
+        int rival = propio ^ 1;
+
+        if (pos.puedeEnrocar(corto) && pos.piezaEn(fila, 7) == torre
+                && (Ataques.entre(rey, Posicion.casilla(fila, 7)) & pos.ocupacion()) == 0
+                && !Ataques.casillaAtacada(pos, rey + 1, rival)
+                && !Ataques.casillaAtacada(pos, rey + 2, rival)) {
+            lista[n++] = Movimiento.crear(rey, rey + 2, Movimiento.ENROQUE);
+        }
+        if (pos.puedeEnrocar(largo) && pos.piezaEn(fila, 0) == torre
+                && (Ataques.entre(rey, Posicion.casilla(fila, 0)) & pos.ocupacion()) == 0
+                && !Ataques.casillaAtacada(pos, rey - 1, rival)
+                && !Ataques.casillaAtacada(pos, rey - 2, rival)) {
+            lista[n++] = Movimiento.crear(rey, rey - 2, Movimiento.ENROQUE);
+        }
+        return n;
+    }
+
+    private static int generarPeones(Posicion pos, int propio, int rey, long mascara, long clavadas,
+                                     int etapa, long origenes, int[] lista, int n) {
+        int rival = propio ^ 1;
+        long libres = ~pos.ocupacion();
+        long rivales = pos.ocupacion(rival);
+        int avance = propio == Posicion.BLANCO ? -8 : 8;
+        int filaInicial = propio == Posicion.BLANCO ? 6 : 1;
+        int filaFinal = propio == Posicion.BLANCO ? 0 : 7;
+        long ultimaFila = propio == Posicion.BLANCO ? 0xFFL : 0xFFL << 56;
+
+        // Tácticos: capturas y cualquier avance a la última fila; tranquilos: el resto de los avances
+        long filtro = etapa == TACTICOS ? rivales | ultimaFila : etapa == TRANQUILOS ? ~rivales & ~ultimaFila : -1L;
+
+        long peones = pos.bitboard(propio, Posicion.PEON) & origenes;
+        while (peones != 0) {
+            int desde = Long.numberOfTrailingZeros(peones);
+            peones &= peones - 1;
+
+            long destinos = Ataques.peon(propio, desde) & rivales;
+            int uno = desde + avance;
+            if ((libres & Posicion.bit(uno)) != 0) {
+                destinos |= Posicion.bit(uno);
+                int dos = uno + avance;
+                if (Posicion.fila(desde) == filaInicial && (libres & Posicion.bit(dos)) != 0) {
+                    destinos |= Posicion.bit(dos);
+                }
+            }
+            destinos &= mascara & filtro;
+            if ((clavadas & Posicion.bit(desde)) != 0) {
+                destinos &= Ataques.linea(rey, desde);
+            }
+
+            while (destinos != 0) {
+                int hasta = Long.numberOfTrailingZeros(destinos);
+                destinos &= destinos - 1;
+                if (Posicion.fila(hasta) == filaFinal) {
+                    for (int tipo = Posicion.REINA; tipo >= Posicion.CABALLO; tipo--) {
+                        lista[n++] = Movimiento.coronacion(desde, hasta, tipo);
+                    }
+                } else {
+                    lista[n++] = Movimiento.crear(desde, hasta);
+                }
+            }
+        }
+
+        // Captura al paso: se comprueba quitando ambos peones del tablero, por si eso descubre
+        // un ataque sobre el rey (incluida la clavada horizontal de dos peones)
+        int alPaso = pos.casillaAlPaso();
+        if (alPaso != -1 && etapa != TRANQUILOS) {
+            int capturado = alPaso - avance;
+            if ((mascara & (Posicion.bit(alPaso) | Posicion.bit(capturado))) != 0) {
+                long candidatos = Ataques.peon(rival, alPaso) & pos.bitboard(propio, Posicion.PEON) & origenes;
+                long reinas = pos.bitboard(rival, Posicion.REINA);
+                while (candidatos != 0) {
+                    int desde = Long.numberOfTrailingZeros(candidatos);
+                    candidatos &= candidatos - 1;
+                    long ocupacion = (pos.ocupacion() ^ Posicion.bit(desde) ^ Posicion.bit(capturado)) | Posicion.bit(alPaso);
+                    boolean expuesto = (Ataques.torre(rey, ocupacion) & (pos.bitboard(rival, Posicion.TORRE) | reinas)) != 0
+                            || (Ataques.alfil(rey, ocupacion) & (pos.bitboard(rival, Posicion.ALFIL) | reinas)) != 0;
+                    if (!expuesto) {
+                        lista[n++] = Movimiento.crear(desde, alPaso, Movimiento.AL_PASO);
+                    }
+                }
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,97 @@
+// Evaluación estática de intercambios (SEE): decide si una captura gana al menos cierto material
+// suponiendo que ambos bandos siguen recapturando en la casilla destino, siempre con la pieza
+// de menor valor. Tiene en cuenta las piezas deslizantes que quedan detrás (rayos X).
+// No considera clavadas ni jaques, así que es una estimación.
+public class Intercambio {
+
+    // Los valores de Evaluacion, salvo el rey: para el intercambio vale más que todo lo demás junto
+    private static final int[] VALOR = Evaluacion.VALOR.clone();
+
+    static {
+        VALOR[Posicion.REY] = 20000;
+    }
+
+    // Comprueba si el intercambio gana al menos umbral (en centipeones, para el bando que mueve) sin
+    // calcular el valor exacto ni reservar memoria
+    public static boolean alMenos(Posicion pos, int movimiento, int umbral) {
+        if (Movimiento.especial(movimiento) == Movimiento.ENROQUE) {
+            return 0 >= umbral;
+        }
+        int desde = Movimiento.desde(movimiento);
+        int hasta = Movimiento.hasta(movimiento);
+
+        // Saldo si el rival no recaptura
+        int saldo = valorCapturado(pos, movimiento) - umbral;
+        if (saldo < 0) {
+            return false;
+        }
+        // Saldo si el rival recaptura y nosotros no seguimos
+        saldo = valorQueQueda(pos, movimiento) - saldo;
+        if (saldo <= 0) {
+            return true;
+        }
+
+        int color = pos.turno();
+        long ocupacion = pos.ocupacion() ^ Posicion.bit(desde);
+        if (Movimiento.especial(movimiento) == Movimiento.AL_PASO) {
+            ocupacion ^= Posicion.bit(hasta + (color == Posicion.BLANCO ? 8 : -8));
+        }
+        long atacantes = Ataques.atacantes(pos, hasta, ocupacion) & ocupacion;
+        boolean resultado = true;
+
+        while (true) {
+            color ^= 1;
+            long propios = atacantes & pos.ocupacion(color);
+            if (propios == 0) {
+                break;
+            }
+            resultado = !resultado;
+            int tipo = menorAtacante(pos, color, propios);
+            if (tipo == Posicion.REY) {
+                // El rey solo puede capturar si el rival ya no tiene con qué recapturar
+                return (atacantes & pos.ocupacion(color ^ 1)) != 0 ? !resultado : resultado;
+            }
+            saldo = VALOR[tipo] - saldo;
+            if (saldo < (resultado ? 1 : 0)) {
+                break;
+            }
+            ocupacion ^= Long.lowestOneBit(propios & pos.bitboard(color, tipo));
+            atacantes = rayosX(pos, hasta, ocupacion, atacantes) & ocupacion;
+        }
+        return resultado;
+    }
+
+    private static int valorCapturado(Posicion pos, int movimiento) {
+        int victima = pos.piezaEn(Movimiento.hasta(movimiento));
+        int valor = victima != Posicion.VACIA ? VALOR[Posicion.tipoDe(victima)]
+                : Movimiento.especial(movimiento) == Movimiento.AL_PASO ? VALOR[Posicion.PEON] : 0;
+        if (Movimiento.especial(movimiento) == Movimiento.CORONACION) {
+            valor += VALOR[Movimiento.piezaCoronacion(movimiento)] - VALOR[Posicion.PEON];
+        }
+        return valor;
+    }
+
+    private static int valorQueQueda(Posicion pos, int movimiento) {
+        if (Movimiento.especial(movimiento) == Movimiento.CORONACION) {
+            return VALOR[Movimiento.piezaCoronacion(movimiento)];
+        }
+        return VALOR[Posicion.tipoDe(pos.piezaEn(Movimiento.desde(movimiento)))];
+    }
+
+    private static int menorAtacante(Posicion pos, int color, long propios) {
+        for (int tipo = Posicion.PEON; tipo < Posicion.REY; tipo++) {
+            if ((propios & pos.bitboard(color, tipo)) != 0) {
+                return tipo;
+            }
+        }
+        return Posicion.REY;
+    }
+
+    // Al quitar una pieza pueden aparecer deslizantes que estaban detrás
+    private static long rayosX(Posicion pos, int casilla, long ocupacion, long atacantes) {
+        long reinas = pos.bitboard(Posicion.BLANCO, Posicion.REINA) | pos.bitboard(Posicion.NEGRO, Posicion.REINA);
+        long diagonales = pos.bitboard(Posicion.BLANCO, Posicion.ALFIL) | pos.bitboard(Posicion.NEGRO, Posicion.ALFIL) | reinas;
+        long rectas = pos.bitboard(Posicion.BLANCO, Posicion.TORRE) | pos.bitboard(Posicion.NEGRO, Posicion.TORRE) | reinas;
+        return atacantes | (Ataques.alfil(casilla, ocupacion) & diagonales) | (Ataques.torre(casilla, ocupacion) & rectas);
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Lee partidas de un archivo PGN en streaming: el canal se recorre con un buffer fijo, así que la
+// memoria no depende del tamaño del archivo (sirven archivos de varios GB). Cada partida se
+// entrega como texto (cabeceras y jugadas) sin interpretar; recorrer() saca las jugadas en SAN y
+// se puede hacer en otro hilo. Los bytes se leen como Latin-1: las jugadas son ASCII y un acento
+// mal leído en una cabecera o un comentario no molesta.
+// No es seguro entre hilos: un hilo lee y reparte las partidas.
+public class LectorPgn implements AutoCloseable {
+
+    private static final int TAMANO_BUFFER = 1 << 20;
+
+    // Recibe cada jugada; devolver false deja de recorrer la partida
+    public interface Visitante {
+        boolean jugada(CharSequence san);
+    }
+
+    // Una partida tal como está en el archivo
+    public static final class Juego {
+        private final String cabeceras;
+        private final String jugadas;
+
+        Juego(String cabeceras, String jugadas) {
+            this.cabeceras = cabeceras;
+            this.jugadas = jugadas;
+        }
+
+        // Valor de una cabecera ([Nombre "valor"]) o null si no está
+        public String cabecera(String nombre) {
+            int i = cabeceras.indexOf("[" + nombre + " ");
+            if (i < 0) {
+                return null;
+            }
+            int a = cabeceras.indexOf('"', i);
+            int b = a < 0 ? -1 : cabeceras.indexOf('"', a + 1);
+            return b < 0 ? null : cabeceras.substring(a + 1, b);
+        }
+
+        // "1-0", "0-1", "1/2-1/2" o "*"; si falta la cabecera, el que cierra las jugadas
+        public String resultado() {
+            String resultado = cabecera("Result");
+            if (resultado != null) {
+                return resultado;
+            }
+            String fin = jugadas.trim();
+            for (String r : new String[]{"1-0", "0-1", "1/2-1/2"}) {
+                if (fin.endsWith(r)) {
+                    return r;
+                }
+            }
+            return "*";
+        }
+
+        // La posición de la cabecera FEN, o la inicial
+        public Posicion posicionInicial() {
+            String fen = cabecera("FEN");
+            return fen == null ? Posicion.inicial() : Posicion.desdeFen(fen);
+        }
+
+        public String textoJugadas() {
+            return jugadas;
+        }
+
+        // Entrega las jugadas de la línea principal en orden, sin números, comentarios, variantes,
+        // NAG ni resultado. Devuelve cuántas entregó.
+        public int recorrer(Visitante visitante) {
+            StringBuilder token = new StringBuilder(8);
+            int entregadas = 0;
+            int variantes = 0;
+            int n = jugadas.length();
+            for (int i = 0; i <= n; i++) {
+                char c = i < n ? jugadas.charAt(i) : ' ';
+                if (c == '{') {
+                    int cierre = jugadas.indexOf('}', i);
+                    i = cierre < 0 ? n : cierre;
+                    c = ' ';
+                } else if (c == ';') {
+                    int finLinea = jugadas.indexOf('\n', i);
+                    i = finLinea < 0 ? n : finLinea;
+                    c = ' ';
+                }
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != '(' && c != ')' && c != '.') {
+                    token.append(c);
+                    continue;
+                }
+                // "12." y "12..." quedan como un número suelto; "12...Nf6" como "Nf6"
+                if (token.length() > 0) {
+                    if (variantes == 0 && esJugada(token)) {
+                        entregadas++;
+                        if (!visitante.jugada(token)) {
+                            return entregadas;
+                        }
+                    }
+                    token.setLength(0);
+                }
+                if (c == '(') {
+                    variantes++;
+                } else if (c == ')' && variantes > 0) {
+                    variantes--;
+                }
+            }
+            return entregadas;
+        }
+
+        private static boolean esJugada(CharSequence token) {
+            if (token.length() < 2) {
+                return false; // "*", o la "e" y la "p" de "exd6 e.p."
+            }
+            char c = token.charAt(0);
+            if (c >= '0' && c <= '9') {
+                // Números de jugada y resultados; "0-0" y "0-0-0" son enroques
+                return token.length() >= 3 && c == '0' && token.charAt(1) == '-' && token.charAt(2) == '0';
+            }
+            return c != '$' && c != '-'; // NAG o jugada nula "--"
+        }
+    }
+
+    private final ReadableByteChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+    private final StringBuilder cabeceras = new StringBuilder();
+    private final StringBuilder jugadas = new StringBuilder();
+    private final StringBuilder linea = new StringBuilder(256);
+    private boolean finDeArchivo;
+    private boolean enComentario; // Dentro de { }, que puede ocupar varias líneas
+    private long bytesLeidos;
+
+    public LectorPgn(ReadableByteChannel canal) {
+        this.canal = canal;
+        buffer.flip(); // Vacío
+    }
+
+    public static LectorPgn abrir(Path archivo) throws IOException {
+        return new LectorPgn(FileChannel.open(archivo, StandardOpenOption.READ));
+    }
+
+    public long bytesLeidos() {
+        return bytesLeidos;
+    }
+
+    // La siguiente partida, o null al final del archivo
+    public Juego siguiente() throws IOException {
+        while (leerLinea()) {
+            boolean esCabecera = !enComentario && linea.length() > 0 && linea.charAt(0) == '[';
+            if (esCabecera && hayJugadas()) {
+                Juego juego = terminar();
+                cabeceras.append(linea).append('\n');
+                return juego;
+            }
+            if (esCabecera) {
+                cabeceras.append(linea).append('\n');
+            } else if (linea.length() > 0 && linea.charAt(0) == '%') {
+                continue; // Línea de escape
+            } else {
+                seguirComentario();
+                jugadas.append(linea).append('\n');
+            }
+        }
+        return cabeceras.length() > 0 || hayJugadas() ? terminar() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private boolean hayJugadas() {
+        for (int i = 0; i < jugadas.length(); i++) {
+            if (!Character.isWhitespace(jugadas.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Juego terminar() {
+        Juego juego = new Juego(cabeceras.toString(), jugadas.toString());
+        cabeceras.setLength(0);
+        jugadas.setLength(0);
+        return juego;
+    }
+
+    // Lleva la cuenta de si la línea deja abierto un comentario { }, para no tomar un '[' de
+    // adentro por el comienzo de otra partida
+    private void seguirComentario() {
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (enComentario) {
+                enComentario = c != '}';
+            } else if (c == '{') {
+                enComentario = true;
+            } else if (c == ';') {
+                return;
+            }
+        }
+    }
+
+    // Deja en linea la siguiente línea sin el salto; false al final del archivo
+    private boolean leerLinea() throws IOException {
+        linea.setLength(0);
+        boolean leyo = false;
+        while (true) {
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                leyo = true;
+                if (b == '\n') {
+                    return true;
+                }
+                if (b != '\r') {
+                    linea.append((char) (b & 0xFF));
+                }
+            }
+            if (finDeArchivo) {
+                return leyo;
+            }
+            buffer.clear();
+            int n = canal.read(buffer);
+            buffer.flip();
+            if (n < 0) {
+                finDeArchivo = true;
+            } else {
+                bytesLeidos += n;
+            }
+        }
+    }
+}
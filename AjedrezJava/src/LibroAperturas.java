@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Libro de aperturas en formato Polyglot: entradas de 16 bytes (clave, movimiento, peso, aprendizaje,
+// en big-endian) ordenadas por clave. El archivo se proyecta en memoria en lugar de leerlo al heap y
+// se busca con búsqueda binaria, así que abrir un libro grande es inmediato y una consulta cuesta
+// unos pocos accesos a páginas. Las lecturas son absolutas: un mismo libro se comparte entre hilos.
+public class LibroAperturas {
+
+    private static final int TAMANO_ENTRADA = 16;
+    private static final int ENTRADAS_POR_SEGMENTO = 1 << 26; // Segmentos de 1 GB (un mapeo no pasa de 2 GB)
+
+    private static final Map<String, LibroAperturas> abiertos = new HashMap<>();
+
+    private final MappedByteBuffer[] segmentos;
+    private final long cantidad;
+
+    private LibroAperturas(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            cantidad = canal.size() / TAMANO_ENTRADA;
+            segmentos = new MappedByteBuffer[(int) ((cantidad + ENTRADAS_POR_SEGMENTO - 1) / ENTRADAS_POR_SEGMENTO)];
+            for (int s = 0; s < segmentos.length; s++) {
+                long inicio = (long) s * ENTRADAS_POR_SEGMENTO;
+                long entradas = Math.min(ENTRADAS_POR_SEGMENTO, cantidad - inicio);
+                segmentos[s] = canal.map(FileChannel.MapMode.READ_ONLY, inicio * TAMANO_ENTRADA, entradas * TAMANO_ENTRADA);
+            }
+        }
+    }
+
+    public static LibroAperturas abrir(String ruta) throws IOException {
+        return new LibroAperturas(Paths.get(ruta));
+    }
+
+    // Cada archivo se proyecta una sola vez por proceso aunque lo usen varios motores
+    public static synchronized LibroAperturas compartido(String ruta) throws IOException {
+        String clave = Paths.get(ruta).toAbsolutePath().normalize().toString();
+        LibroAperturas libro = abiertos.get(clave);
+        if (libro == null) {
+            libro = abrir(ruta);
+            abiertos.put(clave, libro);
+        }
+        return libro;
+    }
+
+    public long cantidad() {
+        return cantidad;
+    }
+
+    // Índice de la primera entrada con esa clave, o -1 si no hay ninguna
+    public long primera(long clave) {
+        long bajo = 0;
+        long alto = cantidad;
+        while (bajo < alto) {
+            long medio = (bajo + alto) >>> 1;
+            if (Long.compareUnsigned(clave(medio), clave) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo < cantidad && clave(bajo) == clave ? bajo : -1;
+    }
+
+    public long clave(long indice) {
+        return segmento(indice).getLong(desplazamiento(indice));
+    }
+
+    // Movimiento en la codificación de Polyglot (ver ClavePolyglot.codificar)
+    public int movimientoPolyglot(long indice) {
+        return segmento(indice).getShort(desplazamiento(indice) + 8) & 0xFFFF;
+    }
+
+    public int peso(long indice) {
+        return segmento(indice).getShort(desplazamiento(indice) + 10) & 0xFFFF;
+    }
+
+    // Elige una jugada del libro con probabilidad proporcional a su peso (las de peso cero no se juegan);
+    // Movimiento.NINGUNO si la posición no está en el libro. Recibe los movimientos legales ya
+    // generados y recorre las entradas de la posición dos veces (sumar los pesos y elegir) en lugar
+    // de copiarlas: no reserva memoria.
+    public int elegir(Posicion pos, Random aleatorio, int[] legales, int cantidadLegales) {
+        long clave = ClavePolyglot.calcular(pos);
+        long primera = primera(clave);
+        long total = 0;
+        for (long i = primera; i >= 0 && i < cantidad && clave(i) == clave; i++) {
+            if (ClavePolyglot.decodificar(movimientoPolyglot(i), legales, cantidadLegales) != Movimiento.NINGUNO) {
+                total += peso(i);
+            }
+        }
+        if (total == 0) {
+            return Movimiento.NINGUNO;
+        }
+        long r = (long) (aleatorio.nextDouble() * total);
+        int ultima = Movimiento.NINGUNO;
+        for (long i = primera; i >= 0 && i < cantidad && clave(i) == clave; i++) {
+            int movimiento = ClavePolyglot.decodificar(movimientoPolyglot(i), legales, cantidadLegales);
+            if (movimiento == Movimiento.NINGUNO || peso(i) == 0) {
+                continue; // Una colisión de claves o un libro defectuoso
+            }
+            r -= peso(i);
+            if (r < 0) {
+                return movimiento;
+            }
+            ultima = movimiento;
+        }
+        return ultima;
+    }
+
+    private MappedByteBuffer segmento(long indice) {
+        return segmentos[(int) (indice / ENTRADAS_POR_SEGMENTO)];
+    }
+
+    private static int desplazamiento(long indice) {
+        return (int) (indice % ENTRADAS_POR_SEGMENTO) * TAMANO_ENTRADA;
+    }
+}
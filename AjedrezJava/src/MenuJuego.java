@@ -5,7 +5,7 @@ public class MenuJuego extends JFrame {
 
     public MenuJuego() {
         setTitle("Menú Principal - Ajedrez");
-        setSize(600, 450);
+        setSize(600, 500);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
@@ -37,6 +37,12 @@ public class MenuJuego extends JFrame {
         });
 
 
+        JButton btnFen = new JButton("Cargar posición (FEN)");
+        btnFen.setFont(new Font("Arial", Font.PLAIN, 18));
+        btnFen.setAlignmentX(Component.CENTER_ALIGNMENT);
+        btnFen.addActionListener(e -> cargarPosicion());
+
+
         JButton btnSalir = new JButton("Salir");
         btnSalir.setFont(new Font("Arial", Font.PLAIN, 18));
         btnSalir.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -48,12 +54,37 @@ public class MenuJuego extends JFrame {
         panel.add(btnIniciar);
         panel.add(Box.createVerticalStrut(20));
         panel.add(btnJugarBot);
+        panel.add(Box.createVerticalStrut(20));
+        panel.add(btnFen);
         panel.add(Box.createVerticalStrut(30));
         panel.add(btnSalir);
 
         add(panel);
     }
 
+    // Pide un FEN y con qué modo jugarlo; un FEN inválido se informa y se vuelve al menú
+    private void cargarPosicion() {
+        String fen = JOptionPane.showInputDialog(this, "Posición en FEN:", "Cargar posición", JOptionPane.PLAIN_MESSAGE);
+        if (fen == null || fen.trim().isEmpty()) {
+            return;
+        }
+        Partida partida;
+        try {
+            partida = Partida.desdeFen(fen.trim());
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "FEN inválido", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String[] modos = {"1 vs 1", "Contra el bot"};
+        int modo = JOptionPane.showOptionDialog(this, "¿Cómo quieres jugar esta posición?", "Cargar posición",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, modos, modos[0]);
+        if (modo < 0) {
+            return;
+        }
+        dispose();
+        new TableroAjedrez(modo == 1, partida).setVisible(true);
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new MenuJuego().setVisible(true));
     }
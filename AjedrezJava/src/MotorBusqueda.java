@@ -0,0 +1,687 @@
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Búsqueda alfa-beta en varios hilos al estilo Lazy SMP: todos los hilos buscan la misma
+// posición con profundización iterativa y solo se comunican a través de la tabla de transposición
+// compartida. Cada hilo tiene su propia posición, variante principal, killers e historia.
+public class MotorBusqueda {
+
+    public static final int INFINITO = 32000;
+    public static final int MATE = 31000;          // Mate en la raíz; se resta la distancia en plies
+    public static final int MATE_MINIMO = MATE - 1000; // Puntuaciones por encima de esto son mates
+
+    public static final int PROFUNDIDAD_MAXIMA = 64;
+    public static final long TIEMPO_POR_DEFECTO_MS = 100;
+    public static final long SIN_LIMITE = Long.MAX_VALUE; // Tiempo de una búsqueda que solo termina con detener()
+
+    private static final int INTERVALO_RELOJ = 1024;    // Cada cuántos nodos se mira el reloj
+    private static final int HISTORIA_MAXIMA = 1 << 20; // Al superarla se reduce toda la tabla a la mitad
+
+    // Búsqueda selectiva
+    private static final int VENTANA_INICIAL = 25;                 // Media ventana de aspiración
+    private static final int PROFUNDIDAD_ASPIRACION = 5;           // Desde qué iteración se usa la ventana
+    private static final int MARGEN_FUTILIDAD_INVERSA = 80;        // Por ply de profundidad restante
+    private static final int[] MARGEN_FUTILIDAD = {0, 150, 300, 450}; // Por profundidad restante (1 a 3)
+    private static final int[][] REDUCCION = new int[64][64];      // LMR por profundidad y número de movimiento
+
+    static {
+        for (int d = 1; d < 64; d++) {
+            for (int m = 1; m < 64; m++) {
+                REDUCCION[d][m] = (int) (0.75 + Math.log(d) * Math.log(m) / 2.25);
+            }
+        }
+    }
+
+    // Resultado de una búsqueda completa
+    public static class Resultado {
+        public final int movimiento;
+        public final int puntuacion;
+        public final int profundidad;
+        public final long nodos;
+        public final long tiempoMs;
+        public final int respuesta; // Respuesta esperada del rival (segundo movimiento de la variante principal)
+
+        Resultado(int movimiento, int puntuacion, int profundidad, long nodos, long tiempoMs, int respuesta) {
+            this.movimiento = movimiento;
+            this.puntuacion = puntuacion;
+            this.profundidad = profundidad;
+            this.nodos = nodos;
+            this.tiempoMs = tiempoMs;
+            this.respuesta = respuesta;
+        }
+    }
+
+
+    private final ConfiguracionMotor config;
+    private final TablaTransposicion tabla;
+    private final Hilo[] hilos;
+    private ExecutorService ayudantes; // Se crea la primera vez que hace falta
+    private final LibroAperturas libro; // null si no hay
+    private final TablasFinales finales; // null si no hay
+    private final Random aleatorioLibro = new Random();
+    private final int[] raiz = new int[GeneradorMovimientos.MAX_MOVIMIENTOS]; // Movimientos legales de la raíz, reusados en cada búsqueda
+    private final Posicion raizTablas = new Posicion(); // Copia de la raíz para sondear las tablas de finales
+
+    // Estado compartido por todos los hilos durante una búsqueda
+    private final AtomicLong nodosCompartidos = new AtomicLong();
+    private volatile long limiteNodos;
+    private volatile long limiteTiempo; // System.nanoTime() en que hay que parar
+    private final AtomicReference<Plazo> plazoPedido = new AtomicReference<>(); // Ver limitarTiempo()
+    private volatile boolean detenido;
+    private final AtomicInteger ordenes = new AtomicInteger(); // Cambia con cada detener() y al terminar cada búsqueda
+
+    public MotorBusqueda(ConfiguracionMotor config) {
+        this.config = config;
+        this.tabla = new TablaTransposicion(config.tablaMb);
+        this.libro = abrirLibro(config.libro);
+        this.finales = abrirTablas(config.tablasFinales);
+        this.hilos = new Hilo[Math.max(config.hilos, 1)];
+        for (int i = 0; i < hilos.length; i++) {
+            hilos[i] = new Hilo(i, config);
+        }
+    }
+
+    private static LibroAperturas abrirLibro(String ruta) {
+        if (ruta == null) {
+            return null;
+        }
+        if (!ClavePolyglot.compatible()) {
+            System.err.println("Aviso: sin las claves de Polyglot (ver ClavePolyglot) solo se reconocen libros creados con CrearLibro");
+        }
+        try {
+            return LibroAperturas.compartido(ruta);
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir el libro " + ruta + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static TablasFinales abrirTablas(String directorio) {
+        if (directorio == null) {
+            return null;
+        }
+        try {
+            return TablasFinales.compartidas(directorio);
+        } catch (IOException e) {
+            System.err.println("No se pudieron abrir las tablas de finales de " + directorio + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Para que las jugadas de libro se repitan (torneos reproducibles)
+    public void semillaLibro(long semilla) {
+        aleatorioLibro.setSeed(semilla);
+    }
+
+    public TablaTransposicion tabla() {
+        return tabla;
+    }
+
+    public int cantidadHilos() {
+        return hilos.length;
+    }
+
+    // Aciertos y fallos acumulados de las tablas de peones de todos los hilos
+    public long aciertosTablaPeones() {
+        long total = 0;
+        for (Hilo hilo : hilos) {
+            total += hilo.peones.aciertos();
+        }
+        return total;
+    }
+
+    public long fallosTablaPeones() {
+        long total = 0;
+        for (Hilo hilo : hilos) {
+            total += hilo.peones.fallos();
+        }
+        return total;
+    }
+
+    // Olvida lo aprendido en búsquedas anteriores (tabla, historia, contra-movimientos, tablas de
+    // peones): la próxima búsqueda da el mismo resultado que la de un motor recién creado
+    public void nuevaPartida() {
+        tabla.limpiar();
+        for (Hilo hilo : hilos) {
+            hilo.olvidar();
+        }
+    }
+
+    // Pide que la búsqueda termine lo antes posible (se puede llamar desde otro hilo)
+    public void detener() {
+        ordenes.incrementAndGet();
+        detenido = true;
+    }
+
+    // Para cancelar o acortar desde otro hilo sin carreras: se lee antes de encargar la búsqueda y se
+    // pasa a buscar(), que no llega a pensar si entretanto alguien llamó a detener(). Cada orden sirve
+    // para una sola búsqueda: al terminar, la siguiente orden ya es otra.
+    public int orden() {
+        return ordenes.get();
+    }
+
+    // Límite de tiempo pedido desde fuera para la búsqueda encargada con esa orden
+    private static final class Plazo {
+        final long instante; // System.nanoTime() en que hay que parar
+        final int orden;
+
+        Plazo(long instante, int orden) {
+            this.instante = instante;
+            this.orden = orden;
+        }
+    }
+
+    // Cambia el tiempo de la búsqueda encargada con esa orden (ver orden()): a partir de ahora
+    // le quedan tiempoMs (al acertar la ponderación). Si todavía no empezó, buscar() toma el plazo en
+    // lugar de pisarlo con su propio límite. No hace nada si la búsqueda ya terminó o se detuvo.
+    public void limitarTiempo(long tiempoMs, int orden) {
+        if (ordenes.get() != orden) {
+            return;
+        }
+        long instante = System.nanoTime() + tiempoMs * 1_000_000L;
+        plazoPedido.set(new Plazo(instante, orden));
+        limiteTiempo = instante;
+    }
+
+    // El movimiento que lleva a la posición de mejor valor (mate más corto, o tablas, o mate más largo);
+    // null si alguna posición resultante no está en las tablas
+    private Resultado jugadaDeTablas(Posicion posicion, int[] raiz, int n, long inicio) {
+        Posicion pos = raizTablas;
+        pos.copiarDe(posicion);
+        int mejor = Movimiento.NINGUNO;
+        int mejorPuntuacion = -MATE - 1;
+        for (int i = 0; i < n; i++) {
+            pos.hacerMovimiento(raiz[i]);
+            int valor = finales.sondear(pos);
+            pos.deshacerMovimiento();
+            if (valor == TablasFinales.NO_DISPONIBLE) {
+                return null;
+            }
+            int puntuacion = -TablasFinales.puntuacion(valor, 1);
+            if (puntuacion > mejorPuntuacion) {
+                mejorPuntuacion = puntuacion;
+                mejor = raiz[i];
+            }
+        }
+        return new Resultado(mejor, mejorPuntuacion, 0, n, (System.nanoTime() - inicio) / 1_000_000, Movimiento.NINGUNO);
+    }
+
+    // Termina los hilos ayudantes; el motor no se debe usar después
+    public void cerrar() {
+        if (ayudantes != null) {
+            ayudantes.shutdownNow();
+        }
+    }
+
+    // Profundización iterativa: busca a profundidad 1, 2, 3... hasta agotar el tiempo, los nodos
+    // o la profundidad. Devuelve el mejor movimiento de la iteración completa más profunda entre
+    // todos los hilos. Trabaja sobre copias: la posición recibida no se modifica.
+    public Resultado buscar(Posicion posicion, long tiempoMs, long maxNodos, int maxProfundidad) {
+        return buscar(posicion, tiempoMs, maxNodos, maxProfundidad, ordenes.get());
+    }
+
+    public Resultado buscar(Posicion posicion, long tiempoMs, long maxNodos, int maxProfundidad, int orden) {
+        try {
+            return buscarRaiz(posicion, tiempoMs, maxNodos, maxProfundidad, orden);
+        } finally {
+            // La orden queda usada: un limitarTiempo() que llegue tarde con ella ya no alcanza a otra búsqueda.
+            // Si alguien llamó a detener() la orden ya cambió y no se toca (sería la de una búsqueda encargada después).
+            ordenes.compareAndSet(orden, orden + 1);
+            Plazo plazo = plazoPedido.get();
+            if (plazo != null && plazo.orden == orden) {
+                plazoPedido.compareAndSet(plazo, null);
+            }
+        }
+    }
+
+    private Resultado buscarRaiz(Posicion posicion, long tiempoMs, long maxNodos, int maxProfundidad, int orden) {
+        long inicio = System.nanoTime();
+        limiteTiempo = tiempoMs == SIN_LIMITE ? Long.MAX_VALUE : inicio + tiempoMs * 1_000_000L;
+        // Se lee después de fijar el límite: un limitarTiempo() anterior queda aquí y uno posterior
+        // escribe directamente en limiteTiempo, así que ninguno se pierde
+        Plazo plazo = plazoPedido.get();
+        if (plazo != null && plazo.orden == orden && plazo.instante < limiteTiempo) {
+            limiteTiempo = plazo.instante;
+        }
+        limiteNodos = maxNodos;
+        nodosCompartidos.set(0);
+        detenido = false;
+        if (ordenes.get() != orden) {
+            detenido = true; // Se canceló antes de empezar
+        }
+        tabla.nuevaBusqueda();
+
+        // Si no hay movimientos o solo hay uno no hace falta pensar
+        int n = GeneradorMovimientos.generarLegales(posicion, raiz);
+        if (n == 0) {
+            return new Resultado(Movimiento.NINGUNO, GeneradorMovimientos.enJaque(posicion) ? -MATE : 0, 0, 0, 0, Movimiento.NINGUNO);
+        }
+        if (n == 1) {
+            return new Resultado(raiz[0], 0, 0, 0, 0, Movimiento.NINGUNO);
+        }
+        // Una jugada de libro no gasta tiempo: queda todo para cuando se acabe la teoría
+        if (libro != null) {
+            int jugadaLibro = libro.elegir(posicion, aleatorioLibro, raiz, n);
+            if (jugadaLibro != Movimiento.NINGUNO) {
+                return new Resultado(jugadaLibro, 0, 0, 0, (System.nanoTime() - inicio) / 1_000_000, Movimiento.NINGUNO);
+            }
+        }
+        // Con las tablas de finales tampoco hace falta buscar: la mejor jugada es la de mejor valor en la tabla
+        if (finales != null && finales.sondear(posicion) != TablasFinales.NO_DISPONIBLE) {
+            Resultado r = jugadaDeTablas(posicion, raiz, n, inicio);
+            if (r != null) {
+                return r;
+            }
+        }
+
+        int profundidad = Math.min(maxProfundidad, PROFUNDIDAD_MAXIMA);
+        for (Hilo hilo : hilos) {
+            hilo.preparar(posicion);
+        }
+        if (hilos.length > 1 && ayudantes == null) {
+            ayudantes = Executors.newFixedThreadPool(hilos.length - 1, tarea -> {
+                Thread t = new Thread(tarea, "busqueda-ayudante");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        Future<?>[] tareas = new Future<?>[hilos.length];
+        for (int i = 1; i < hilos.length; i++) {
+            Hilo hilo = hilos[i];
+            tareas[i] = ayudantes.submit(() -> hilo.iterar(profundidad));
+        }
+
+        // El hilo que llama hace de principal: cuando termina, paran todos
+        hilos[0].iterar(profundidad);
+        detenido = true;
+        for (int i = 1; i < hilos.length; i++) {
+            try {
+                tareas[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falló un hilo de búsqueda", e.getCause());
+            }
+        }
+
+        // Gana el hilo con la iteración completa más profunda (a igualdad, el principal)
+        Hilo mejor = hilos[0];
+        long nodos = 0;
+        for (Hilo hilo : hilos) {
+            nodos += hilo.nodos;
+            if (hilo.profundidadCompleta > mejor.profundidadCompleta && hilo.mejor != Movimiento.NINGUNO) {
+                mejor = hilo;
+            }
+        }
+        long tiempo = (System.nanoTime() - inicio) / 1_000_000L;
+        int respuesta = mejor.largoPvAnterior > 1 ? mejor.pvAnterior[1] : Movimiento.NINGUNO;
+        return new Resultado(mejor.mejor, mejor.puntuacion, mejor.profundidadCompleta, nodos, tiempo, respuesta);
+    }
+
+    // Estado de búsqueda de un hilo
+    private final class Hilo {
+        private final int id;
+        private final Posicion pos = new Posicion(); // Copia propia de la raíz, reusada en cada búsqueda
+        private final SelectorMovimientos[] selectores = new SelectorMovimientos[PROFUNDIDAD_MAXIMA + 1];
+
+        // Variante principal triangular: pv[ply] guarda la mejor línea encontrada desde ese ply
+        private final int[][] pv = new int[PROFUNDIDAD_MAXIMA + 1][PROFUNDIDAD_MAXIMA + 1];
+        private final int[] largoPv = new int[PROFUNDIDAD_MAXIMA + 1];
+        private final int[] pvAnterior = new int[PROFUNDIDAD_MAXIMA + 1];
+        private int largoPvAnterior;
+
+        // Killers: dos movimientos tranquilos por ply que causaron corte beta.
+        // Historia: puntaje por bando, origen y destino de los tranquilos que causaron corte.
+        // Contra-movimientos: el tranquilo que refutó la última jugada, por pieza y destino de esa jugada.
+        private final int[][] killers = new int[PROFUNDIDAD_MAXIMA + 1][2];
+        private final int[][] historia = new int[2][64 * 64];
+        private final int[][] contra = new int[12][64];
+        private final TablaPeones peones;
+
+        private long nodos;
+        private int mejor;
+        private int puntuacion;
+        private int profundidadCompleta;
+
+        Hilo(int id, ConfiguracionMotor config) {
+            this.id = id;
+            this.peones = new TablaPeones(config.tablaPeonesKb);
+            for (int i = 0; i < selectores.length; i++) {
+                selectores[i] = new SelectorMovimientos();
+            }
+        }
+
+        void preparar(Posicion posicion) {
+            pos.copiarDe(posicion);
+            nodos = 0;
+            mejor = Movimiento.NINGUNO;
+            puntuacion = 0;
+            profundidadCompleta = 0;
+            largoPvAnterior = 0;
+            for (int[] k : killers) {
+                k[0] = Movimiento.NINGUNO;
+                k[1] = Movimiento.NINGUNO;
+            }
+            // La historia se conserva entre búsquedas, pero con menos peso
+            for (int[] h : historia) {
+                for (int i = 0; i < h.length; i++) {
+                    h[i] >>= 2;
+                }
+            }
+        }
+
+        void olvidar() {
+            for (int[] h : historia) {
+                java.util.Arrays.fill(h, 0);
+            }
+            for (int[] c : contra) {
+                java.util.Arrays.fill(c, Movimiento.NINGUNO);
+            }
+            peones.limpiar();
+        }
+
+        void iterar(int maxProfundidad) {
+            // Los ayudantes impares empiezan una profundidad más adelante para no ir a la par del principal
+            for (int profundidad = 1 + (id & 1); profundidad <= maxProfundidad; profundidad++) {
+                int valor = buscarIteracion(profundidad);
+                if (detenido && (profundidadCompleta > 0 || id > 0)) {
+                    break; // Iteración incompleta: se descarta (el principal siempre conserva la primera)
+                }
+                mejor = pv[0][0];
+                puntuacion = valor;
+                profundidadCompleta = profundidad;
+                largoPvAnterior = largoPv[0];
+                System.arraycopy(pv[0], 0, pvAnterior, 0, largoPvAnterior);
+
+                // No tiene sentido seguir si ya se encontró un mate
+                if (detenido || Math.abs(valor) >= MATE_MINIMO) {
+                    break;
+                }
+            }
+        }
+
+        // Ventana de aspiración: se busca con una ventana estrecha alrededor de la puntuación de la
+        // iteración anterior y, si el resultado cae fuera, se ensancha de ese lado y se repite
+        private int buscarIteracion(int profundidad) {
+            if (!config.ventanaAspiracion || profundidad < PROFUNDIDAD_ASPIRACION || Math.abs(puntuacion) >= MATE_MINIMO) {
+                return pvs(profundidad, -INFINITO, INFINITO, 0);
+            }
+            int delta = VENTANA_INICIAL;
+            int alfa = Math.max(puntuacion - delta, -INFINITO);
+            int beta = Math.min(puntuacion + delta, INFINITO);
+            while (true) {
+                int valor = pvs(profundidad, alfa, beta, 0);
+                if (detenido) {
+                    return valor;
+                }
+                if (valor <= alfa) {
+                    alfa = Math.max(alfa - delta, -INFINITO);
+                } else if (valor >= beta) {
+                    beta = Math.min(beta + delta, INFINITO);
+                } else {
+                    return valor;
+                }
+                delta *= 2;
+            }
+        }
+
+        // Búsqueda de variante principal (alfa-beta con ventana nula para los movimientos que no son el primero)
+        private int pvs(int profundidad, int alfa, int beta, int ply) {
+            largoPv[ply] = ply;
+
+            boolean enJaque = ply < PROFUNDIDAD_MAXIMA && GeneradorMovimientos.enJaque(pos);
+            if (enJaque && config.extensionJaque) {
+                profundidad++;
+            }
+            if (profundidad <= 0 || ply >= PROFUNDIDAD_MAXIMA) {
+                return quiescencia(alfa, beta, ply);
+            }
+
+            contarNodo();
+            if (detenido && ply > 0) {
+                return 0;
+            }
+
+            if (ply > 0 && (pos.reglaCincuenta() >= 100 || pos.esRepeticion())) {
+                return 0;
+            }
+
+            // Con pocas piezas el valor exacto está en las tablas de finales
+            if (ply > 0 && finales != null) {
+                int valor = finales.sondear(pos);
+                if (valor != TablasFinales.NO_DISPONIBLE) {
+                    return TablasFinales.puntuacion(valor, ply);
+                }
+            }
+
+            // Tabla de transposición: fuera de la variante principal una entrada suficientemente
+            // profunda corta la búsqueda; en cualquier caso su movimiento se prueba primero
+            long entrada = tabla.buscar(pos.clave());
+            int movimientoHash = Movimiento.NINGUNO;
+            if (entrada != 0) {
+                movimientoHash = TablaTransposicion.movimiento(entrada);
+                if (ply > 0 && beta - alfa == 1 && TablaTransposicion.profundidad(entrada) >= profundidad) {
+                    int valor = TablaTransposicion.puntuacion(entrada, ply);
+                    int tipo = TablaTransposicion.tipo(entrada);
+                    if (tipo == TablaTransposicion.EXACTA
+                            || (tipo == TablaTransposicion.INFERIOR && valor >= beta)
+                            || (tipo == TablaTransposicion.SUPERIOR && valor <= alfa)) {
+                        return valor;
+                    }
+                }
+            }
+
+            boolean esPv = beta - alfa > 1;
+            int estatica = esPv || enJaque ? -INFINITO : Evaluacion.evaluar(pos, peones);
+
+            // Futilidad inversa: cerca de las hojas, si la evaluación supera beta por un margen
+            // amplio, es muy improbable que el rival pueda remontarlo
+            if (config.futilidad && !esPv && !enJaque && profundidad <= 6 && Math.abs(beta) < MATE_MINIMO
+                    && estatica - MARGEN_FUTILIDAD_INVERSA * profundidad >= beta) {
+                return estatica;
+            }
+
+            // Movimiento nulo: si aun pasando el turno la búsqueda reducida supera beta, se corta.
+            // No se usa con solo peones y rey (zugzwang) ni dos veces seguidas.
+            if (config.movimientoNulo && !esPv && !enJaque && profundidad >= 3 && estatica >= beta
+                    && pos.ultimoMovimiento() != Movimiento.NINGUNO && tienePiezas(pos.turno())) {
+                int reduccion = 2 + profundidad / 4;
+                pos.hacerMovimientoNulo();
+                int valor = -pvs(profundidad - 1 - reduccion, -beta, -beta + 1, ply + 1);
+                pos.deshacerMovimientoNulo();
+                if (detenido) {
+                    return 0;
+                }
+                if (valor >= beta) {
+                    return valor >= MATE_MINIMO ? beta : valor;
+                }
+            }
+
+            // Sin entrada en la tabla se prueba primero el movimiento de la variante principal anterior
+            if (movimientoHash == Movimiento.NINGUNO && ply < largoPvAnterior) {
+                movimientoHash = pvAnterior[ply];
+            }
+            SelectorMovimientos selector = selectores[ply];
+            selector.iniciar(pos, movimientoHash, killers[ply][0], killers[ply][1], contraMovimiento(), historia[pos.turno()]);
+
+            // Futilidad: a profundidad 1 a 3, si ni sumando un margen se alcanza alfa, los movimientos
+            // tranquilos que no dan jaque no pueden mejorar nada
+            boolean podarTranquilos = config.futilidad && !esPv && !enJaque && profundidad < MARGEN_FUTILIDAD.length
+                    && Math.abs(alfa) < MATE_MINIMO && estatica + MARGEN_FUTILIDAD[profundidad] <= alfa;
+
+            int alfaOriginal = alfa;
+            int mejorMovimiento = Movimiento.NINGUNO;
+            int legales = 0;
+            int jugados = 0;
+            int movimiento;
+            while ((movimiento = selector.siguiente()) != Movimiento.NINGUNO) {
+                legales++;
+                boolean tranquilo = !GeneradorMovimientos.esTactico(pos, movimiento);
+                pos.hacerMovimiento(movimiento);
+                boolean daJaque = GeneradorMovimientos.enJaque(pos);
+
+                if (podarTranquilos && jugados > 0 && tranquilo && !daJaque) {
+                    pos.deshacerMovimiento();
+                    continue;
+                }
+
+                int valor;
+                if (jugados++ == 0) {
+                    valor = -pvs(profundidad - 1, -beta, -alfa, ply + 1);
+                } else {
+                    // Reducción de movimientos tardíos: con buen orden, los tranquilos del final casi
+                    // nunca son los mejores; se buscan con menos profundidad y solo se repiten si superan alfa
+                    int reduccion = 0;
+                    if (config.reduccionesTardias && profundidad >= 3 && jugados > 3 && tranquilo && !enJaque && !daJaque) {
+                        reduccion = REDUCCION[Math.min(profundidad, 63)][Math.min(jugados, 63)] - (esPv ? 1 : 0);
+                        reduccion = Math.max(0, Math.min(reduccion, profundidad - 2));
+                    }
+                    valor = -pvs(profundidad - 1 - reduccion, -alfa - 1, -alfa, ply + 1);
+                    if (reduccion > 0 && valor > alfa) {
+                        valor = -pvs(profundidad - 1, -alfa - 1, -alfa, ply + 1);
+                    }
+                    if (valor > alfa && valor < beta) {
+                        valor = -pvs(profundidad - 1, -beta, -alfa, ply + 1);
+                    }
+                }
+                pos.deshacerMovimiento();
+
+                if (detenido && ply > 0) {
+                    return 0;
+                }
+
+                if (valor > alfa) {
+                    alfa = valor;
+                    mejorMovimiento = movimiento;
+                    actualizarPv(ply, movimiento);
+                    if (alfa >= beta) {
+                        if (!GeneradorMovimientos.esTactico(pos, movimiento)) {
+                            registrarCorte(movimiento, profundidad, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+
+            // Sin movimientos legales: mate o ahogado
+            if (legales == 0) {
+                return enJaque ? -MATE + ply : 0;
+            }
+
+            if (!detenido) {
+                int tipo = alfa >= beta ? TablaTransposicion.INFERIOR
+                        : alfa > alfaOriginal ? TablaTransposicion.EXACTA : TablaTransposicion.SUPERIOR;
+                tabla.guardar(pos.clave(), mejorMovimiento, alfa, profundidad, tipo, ply);
+            }
+            return alfa;
+        }
+
+        // Búsqueda de quietud: en las hojas sigue solo con capturas y coronaciones hasta que la
+        // posición se calma, para no evaluar en medio de un intercambio. El bando que mueve puede
+        // quedarse con la evaluación estática si ninguna captura la mejora (salvo en jaque, donde
+        // hay que probar todas las evasiones). Las capturas que pierden material según SEE no se buscan.
+        private int quiescencia(int alfa, int beta, int ply) {
+            contarNodo();
+            if (detenido || ply >= PROFUNDIDAD_MAXIMA) {
+                return Evaluacion.evaluar(pos, peones);
+            }
+
+            boolean enJaque = GeneradorMovimientos.enJaque(pos);
+            if (!enJaque) {
+                int estatica = Evaluacion.evaluar(pos, peones);
+                if (estatica >= beta) {
+                    return estatica;
+                }
+                if (estatica > alfa) {
+                    alfa = estatica;
+                }
+            }
+
+            SelectorMovimientos selector = selectores[ply];
+            if (enJaque) {
+                selector.iniciar(pos, Movimiento.NINGUNO, Movimiento.NINGUNO, Movimiento.NINGUNO, Movimiento.NINGUNO,
+                        historia[pos.turno()]);
+            } else {
+                selector.iniciarQuiescencia(pos);
+            }
+
+            int jugados = 0;
+            int movimiento;
+            while ((movimiento = selector.siguiente()) != Movimiento.NINGUNO) {
+                jugados++;
+                pos.hacerMovimiento(movimiento);
+                int valor = -quiescencia(-beta, -alfa, ply + 1);
+                pos.deshacerMovimiento();
+
+                if (valor > alfa) {
+                    alfa = valor;
+                    if (alfa >= beta) {
+                        break;
+                    }
+                }
+            }
+            if (enJaque && jugados == 0) {
+                return -MATE + ply;
+            }
+            return alfa;
+        }
+
+        private void contarNodo() {
+            nodos++;
+            if ((nodos & (INTERVALO_RELOJ - 1)) == 0
+                    && (System.nanoTime() > limiteTiempo || nodosCompartidos.addAndGet(INTERVALO_RELOJ) >= limiteNodos)) {
+                detenido = true;
+            }
+        }
+
+        private void actualizarPv(int ply, int movimiento) {
+            pv[ply][ply] = movimiento;
+            System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, largoPv[ply + 1] - ply - 1);
+            largoPv[ply] = Math.max(largoPv[ply + 1], ply + 1);
+        }
+
+        // Tiene algo más que peones y rey: con solo eso el movimiento nulo es peligroso (zugzwang)
+        private boolean tienePiezas(int color) {
+            return (pos.ocupacion(color) & ~pos.bitboard(color, Posicion.PEON) & ~pos.bitboard(color, Posicion.REY)) != 0;
+        }
+
+        // Contra-movimiento guardado para la última jugada del rival
+        private int contraMovimiento() {
+            int ultimo = pos.ultimoMovimiento();
+            if (ultimo == Movimiento.NINGUNO) {
+                return Movimiento.NINGUNO;
+            }
+            int hasta = Movimiento.hasta(ultimo);
+            return contra[pos.piezaEn(hasta)][hasta];
+        }
+
+        // Un movimiento tranquilo causó corte beta: pasa a ser killer del ply, contra-movimiento
+        // de la jugada anterior y suma historia
+        private void registrarCorte(int movimiento, int profundidad, int ply) {
+            if (killers[ply][0] != movimiento) {
+                killers[ply][1] = killers[ply][0];
+                killers[ply][0] = movimiento;
+            }
+            int ultimo = pos.ultimoMovimiento();
+            if (ultimo != Movimiento.NINGUNO) {
+                int hasta = Movimiento.hasta(ultimo);
+                contra[pos.piezaEn(hasta)][hasta] = movimiento;
+            }
+            int[] h = historia[pos.turno()];
+            int i = Movimiento.desde(movimiento) * 64 + Movimiento.hasta(movimiento);
+            h[i] += profundidad * profundidad;
+            if (h[i] > HISTORIA_MAXIMA) {
+                for (int j = 0; j < h.length; j++) {
+                    h[j] >>= 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+public class Movimiento {
+
+    // Un movimiento se guarda en los 16 bits bajos de un int:
+    // bits 0-5 casilla de origen, bits 6-11 casilla de destino,
+    // bits 12-13 tipo especial y bits 14-15 pieza de coronación (0 = caballo ... 3 = reina)
+    public static final int NORMAL = 0;
+    public static final int CORONACION = 1;
+    public static final int AL_PASO = 2;
+    public static final int ENROQUE = 3;
+
+    public static final int NINGUNO = 0; // Origen y destino iguales: nunca es un movimiento real
+
+    public static int crear(int desde, int hasta) {
+        return desde | (hasta << 6);
+    }
+
+    public static int crear(int desde, int hasta, int especial) {
+        return desde | (hasta << 6) | (especial << 12);
+    }
+
+    public static int coronacion(int desde, int hasta, int tipoPieza) {
+        return desde | (hasta << 6) | (CORONACION << 12) | ((tipoPieza - Posicion.CABALLO) << 14);
+    }
+
+    public static int desde(int movimiento) {
+        return movimiento & 63;
+    }
+
+    public static int hasta(int movimiento) {
+        return (movimiento >>> 6) & 63;
+    }
+
+    public static int especial(int movimiento) {
+        return (movimiento >>> 12) & 3;
+    }
+
+    public static int piezaCoronacion(int movimiento) {
+        return Posicion.CABALLO + ((movimiento >>> 14) & 3);
+    }
+
+    // Notación de coordenadas (por ejemplo e2e4 o e7e8q)
+    public static String texto(int movimiento) {
+        String s = nombreCasilla(desde(movimiento)) + nombreCasilla(hasta(movimiento));
+        if (especial(movimiento) == CORONACION) {
+            s += "nbrq".charAt(piezaCoronacion(movimiento) - Posicion.CABALLO);
+        }
+        return s;
+    }
+
+    public static String nombreCasilla(int casilla) {
+        return "" + (char) ('a' + Posicion.columna(casilla)) + (char) ('8' - Posicion.fila(casilla));
+    }
+}
@@ -0,0 +1,62 @@
+// Movimientos legales de una posición, generados una sola vez y agrupados por casilla de origen.
+// actualizar() solo vuelve a generar si la posición cambió (según su clave Zobrist); después
+// los destinos de una pieza y la validación de un movimiento son consultas O(1).
+// Sin movimientos legales la partida terminó: mate si el bando que mueve está en jaque, ahogado si no.
+public class MovimientosLegales {
+
+    private final int[] lista = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private final int[] porOrigenDestino = new int[64 * 64]; // Movimiento por desde * 64 + hasta
+    private final long[] destinos = new long[64];
+    private int cantidad;
+    private long clave;
+    private boolean calculada;
+    private boolean enJaque;
+
+    // Recalcula si la posición no es la de la última vez
+    public void actualizar(Posicion pos) {
+        if (calculada && pos.clave() == clave) {
+            return;
+        }
+        // Solo se borran las entradas que se llenaron la vez anterior
+        for (int i = 0; i < cantidad; i++) {
+            int m = lista[i];
+            porOrigenDestino[Movimiento.desde(m) * 64 + Movimiento.hasta(m)] = Movimiento.NINGUNO;
+            destinos[Movimiento.desde(m)] = 0;
+        }
+        cantidad = GeneradorMovimientos.generarLegales(pos, lista);
+        for (int i = 0; i < cantidad; i++) {
+            int m = lista[i];
+            int indice = Movimiento.desde(m) * 64 + Movimiento.hasta(m);
+            // Las cuatro coronaciones comparten casillas: se queda la primera (reina)
+            if (porOrigenDestino[indice] == Movimiento.NINGUNO) {
+                porOrigenDestino[indice] = m;
+            }
+            destinos[Movimiento.desde(m)] |= Posicion.bit(Movimiento.hasta(m));
+        }
+        enJaque = GeneradorMovimientos.enJaque(pos);
+        clave = pos.clave();
+        calculada = true;
+    }
+
+    // Bitboard con los destinos legales de la pieza en esa casilla
+    public long destinos(int desde) {
+        return destinos[desde];
+    }
+
+    // El movimiento legal de una casilla a otra (si es coronación, la de reina) o Movimiento.NINGUNO
+    public int buscar(int desde, int hasta) {
+        return porOrigenDestino[desde * 64 + hasta];
+    }
+
+    public boolean esJaqueMate() {
+        return cantidad == 0 && enJaque;
+    }
+
+    public boolean esAhogado() {
+        return cantidad == 0 && !enJaque;
+    }
+
+    public boolean enJaque() {
+        return enJaque;
+    }
+}
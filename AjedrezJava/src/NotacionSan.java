@@ -0,0 +1,159 @@
+// Notación algebraica estándar (SAN) de las partidas en PGN: "e4", "Nbd7", "exd8=Q+", "O-O-O".
+// Un movimiento se lee y se escribe contra la lista de movimientos legales de la posición.
+public class NotacionSan {
+
+    private static final String LETRAS_PIEZA = "PNBRQK"; // En el orden de los tipos de Posicion
+
+    // El movimiento legal que corresponde a la jugada escrita, o Movimiento.NINGUNO si no hay
+    // ninguno o es ambigua. Acepta jaques, anotaciones (!?) y coronaciones sin '='.
+    public static int leer(Posicion pos, CharSequence san, int[] legales, int cantidad) {
+        int fin = san.length();
+        while (fin > 0 && "+#!?".indexOf(san.charAt(fin - 1)) >= 0) {
+            fin--;
+        }
+        if (fin == 0) {
+            return Movimiento.NINGUNO;
+        }
+
+        // Enroques (también con ceros, como escriben algunos programas)
+        if (san.charAt(0) == 'O' || san.charAt(0) == '0') {
+            int largo = fin == 5 ? 1 : fin == 3 ? 0 : -1;
+            for (int i = 0; i < cantidad && largo >= 0; i++) {
+                int m = legales[i];
+                if (Movimiento.especial(m) == Movimiento.ENROQUE
+                        && (Posicion.columna(Movimiento.hasta(m)) == 2) == (largo == 1)) {
+                    return m;
+                }
+            }
+            return Movimiento.NINGUNO;
+        }
+
+        int inicio = 0;
+        int tipo = Posicion.PEON;
+        int letra = LETRAS_PIEZA.indexOf(san.charAt(0));
+        if (letra >= 0) {
+            tipo = letra;
+            inicio = 1;
+        }
+
+        int coronacion = -1;
+        if (tipo == Posicion.PEON && fin >= 2) {
+            char c = san.charAt(fin - 1);
+            boolean conIgual = san.charAt(fin - 2) == '=';
+            int pieza = LETRAS_PIEZA.indexOf(conIgual ? Character.toUpperCase(c) : c); // "e8Q" o "e8=q"
+            if (pieza >= Posicion.CABALLO && pieza <= Posicion.REINA) {
+                coronacion = pieza;
+                fin--;
+                if (fin > 0 && san.charAt(fin - 1) == '=') {
+                    fin--;
+                }
+            }
+        }
+
+        if (fin - inicio < 2) {
+            return Movimiento.NINGUNO;
+        }
+        int hasta = casilla(san.charAt(fin - 2), san.charAt(fin - 1));
+        if (hasta < 0) {
+            return Movimiento.NINGUNO;
+        }
+
+        // Lo que queda en medio (sin la 'x') es la desambiguación: columna, fila o ambas
+        int columnaOrigen = -1;
+        int filaOrigen = -1;
+        for (int i = inicio; i < fin - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                columnaOrigen = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                filaOrigen = '8' - c;
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return Movimiento.NINGUNO;
+            }
+        }
+
+        int encontrado = Movimiento.NINGUNO;
+        for (int i = 0; i < cantidad; i++) {
+            int m = legales[i];
+            int desde = Movimiento.desde(m);
+            if (Movimiento.hasta(m) != hasta || Posicion.tipoDe(pos.piezaEn(desde)) != tipo
+                    || Movimiento.especial(m) == Movimiento.ENROQUE) {
+                continue;
+            }
+            if ((columnaOrigen >= 0 && Posicion.columna(desde) != columnaOrigen)
+                    || (filaOrigen >= 0 && Posicion.fila(desde) != filaOrigen)) {
+                continue;
+            }
+            boolean corona = Movimiento.especial(m) == Movimiento.CORONACION;
+            if (corona != (coronacion >= 0) || (corona && Movimiento.piezaCoronacion(m) != coronacion)) {
+                continue;
+            }
+            if (encontrado != Movimiento.NINGUNO) {
+                return Movimiento.NINGUNO; // Ambigua
+            }
+            encontrado = m;
+        }
+        return encontrado;
+    }
+
+    // La jugada en SAN ("Nbd7", "exd8=Q+", "O-O#"), desambiguada contra la lista de legales.
+    // Hace y deshace el movimiento para poner la marca de jaque o mate, generando las respuestas
+    // en auxiliar (un buffer distinto de legales, que no se toca).
+    public static String escribir(Posicion pos, int movimiento, int[] legales, int cantidad, int[] auxiliar) {
+        StringBuilder s = new StringBuilder(8);
+        int desde = Movimiento.desde(movimiento);
+        int hasta = Movimiento.hasta(movimiento);
+        int tipo = Posicion.tipoDe(pos.piezaEn(desde));
+        boolean captura = pos.piezaEn(hasta) != Posicion.VACIA || Movimiento.especial(movimiento) == Movimiento.AL_PASO;
+        if (Movimiento.especial(movimiento) == Movimiento.ENROQUE) {
+            s.append(Posicion.columna(hasta) == 2 ? "O-O-O" : "O-O");
+        } else if (tipo == Posicion.PEON) {
+            if (captura) {
+                s.append((char) ('a' + Posicion.columna(desde))).append('x');
+            }
+            s.append(Movimiento.nombreCasilla(hasta));
+            if (Movimiento.especial(movimiento) == Movimiento.CORONACION) {
+                s.append('=').append(LETRAS_PIEZA.charAt(Movimiento.piezaCoronacion(movimiento)));
+            }
+        } else {
+            s.append(LETRAS_PIEZA.charAt(tipo));
+            // Otras piezas iguales que llegan a la misma casilla: primero la columna, si no alcanza la fila
+            boolean otra = false;
+            boolean mismaColumna = false;
+            boolean mismaFila = false;
+            for (int i = 0; i < cantidad; i++) {
+                int m = legales[i];
+                int otroDesde = Movimiento.desde(m);
+                if (otroDesde != desde && Movimiento.hasta(m) == hasta && pos.piezaEn(otroDesde) == pos.piezaEn(desde)) {
+                    otra = true;
+                    mismaColumna |= Posicion.columna(otroDesde) == Posicion.columna(desde);
+                    mismaFila |= Posicion.fila(otroDesde) == Posicion.fila(desde);
+                }
+            }
+            if (otra && (!mismaColumna || mismaFila)) {
+                s.append((char) ('a' + Posicion.columna(desde)));
+            }
+            if (otra && mismaColumna) {
+                s.append((char) ('8' - Posicion.fila(desde)));
+            }
+            if (captura) {
+                s.append('x');
+            }
+            s.append(Movimiento.nombreCasilla(hasta));
+        }
+
+        pos.hacerMovimiento(movimiento);
+        if (GeneradorMovimientos.enJaque(pos)) {
+            s.append(GeneradorMovimientos.contarLegales(pos, auxiliar) == 0 ? '#' : '+');
+        }
+        pos.deshacerMovimiento();
+        return s.toString();
+    }
+
+    private static int casilla(char columna, char fila) {
+        if (columna < 'a' || columna > 'h' || fila < '1' || fila > '8') {
+            return -1;
+        }
+        return Posicion.casilla('8' - fila, columna - 'a');
+    }
+}
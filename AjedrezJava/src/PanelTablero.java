@@ -0,0 +1,267 @@
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.function.IntConsumer;
+
+// Tablero dibujado a mano en un solo componente: casillas, piezas y marcas.
+// No tiene estado de juego: muestra una Posicion y avisa de los clics como número de casilla.
+// Solo repinta las casillas que cambiaron (piezas, selección, destinos, última jugada) y anima
+// la pieza que se movió. Se usa desde el hilo de Swing.
+public class PanelTablero extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Color CLARA = new Color(240, 217, 181);
+    private static final Color OSCURA = new Color(181, 136, 99);
+    private static final Color ULTIMA_JUGADA = new Color(255, 235, 59, 110);
+    private static final Color SELECCION = Color.BLUE;
+    private static final Color DESTINO = new Color(0, 0, 0, 60);
+    private static final BasicStroke TRAZO_SELECCION = new BasicStroke(3);
+
+    private static final int DURACION_ANIMACION_MS = 150;
+    private static final int INTERVALO_ANIMACION_MS = 15;
+
+    private final CacheIconos iconos = new CacheIconos();
+    private final int[] piezaMostrada = new int[64];
+    private final Posicion posicion;
+
+    private int seleccionada = -1;
+    private long destinos;        // Casillas marcadas como destino legal de la seleccionada
+    private int ultimaJugada = Movimiento.NINGUNO;
+
+    // Animación: la pieza que llegó a 'animadaHasta' se dibuja desplazándose desde 'animadaDesde'
+    private final Timer temporizador;
+    private int animadaDesde = -1;
+    private int animadaHasta = -1;
+    private long inicioAnimacion;
+    private final Rectangle areaAnimada = new Rectangle();
+
+    // Anillo de las capturas posibles: su grosor depende del tamaño de casilla, así que se rehace solo si cambia
+    private BasicStroke trazoCaptura;
+    private int ladoTrazoCaptura = -1;
+
+    public PanelTablero(Posicion posicion, IntConsumer alHacerClic) {
+        this.posicion = posicion;
+        java.util.Arrays.fill(piezaMostrada, Posicion.VACIA);
+        setOpaque(true);
+        setDoubleBuffered(true);
+        setPreferredSize(new Dimension(600, 600));
+        temporizador = new Timer(INTERVALO_ANIMACION_MS, e -> avanzarAnimacion());
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int casilla = casillaEn(e.getX(), e.getY());
+                if (casilla != -1) {
+                    alHacerClic.accept(casilla);
+                }
+            }
+        });
+    }
+
+    // Después de hacer un movimiento en la posición: repinta las casillas que cambiaron,
+    // marca la jugada como última y, si se pide, anima la pieza desde su origen
+    public void movimientoHecho(int movimiento, boolean animar) {
+        terminarAnimacion();
+        repintarJugada(ultimaJugada);
+        ultimaJugada = movimiento;
+        repintarJugada(movimiento);
+        repintarCambios();
+        if (animar && movimiento != Movimiento.NINGUNO) {
+            animadaDesde = Movimiento.desde(movimiento);
+            animadaHasta = Movimiento.hasta(movimiento);
+            inicioAnimacion = System.nanoTime();
+            temporizador.start();
+        }
+    }
+
+    // Marca una casilla como seleccionada y los destinos legales de su pieza (bitboard)
+    public void seleccionar(int casilla, long destinos) {
+        limpiarSeleccion();
+        seleccionada = casilla;
+        this.destinos = destinos;
+        repintarCasilla(casilla);
+        repintarCasillas(destinos);
+    }
+
+    public void limpiarSeleccion() {
+        if (seleccionada != -1) {
+            repintarCasilla(seleccionada);
+        }
+        repintarCasillas(destinos);
+        seleccionada = -1;
+        destinos = 0;
+    }
+
+    // Casilla bajo el punto (x, y) del componente, o -1 si cae fuera del tablero
+    public int casillaEn(int x, int y) {
+        int lado = lado();
+        int col = (x - margenX(lado)) / lado;
+        int fila = (y - margenY(lado)) / lado;
+        if (x < margenX(lado) || y < margenY(lado) || col > 7 || fila > 7) {
+            return -1;
+        }
+        return Posicion.casilla(fila, col);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g0) {
+        Graphics2D g = (Graphics2D) g0;
+        int lado = lado();
+        int x0 = margenX(lado);
+        int y0 = margenY(lado);
+        int tamanoIcono = Math.max(lado * 4 / 5, 1);
+        if (getBackground() != null) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // Solo se recorren las casillas que tocan la zona a repintar
+        Rectangle zona = g.getClipBounds();
+        if (zona == null) {
+            zona = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        for (int casilla = 0; casilla < 64; casilla++) {
+            int x = x0 + Posicion.columna(casilla) * lado;
+            int y = y0 + Posicion.fila(casilla) * lado;
+            if (!zona.intersects(x, y, lado, lado)) {
+                continue;
+            }
+            g.setColor((Posicion.fila(casilla) + Posicion.columna(casilla)) % 2 == 0 ? CLARA : OSCURA);
+            g.fillRect(x, y, lado, lado);
+            if (ultimaJugada != Movimiento.NINGUNO
+                    && (casilla == Movimiento.desde(ultimaJugada) || casilla == Movimiento.hasta(ultimaJugada))) {
+                g.setColor(ULTIMA_JUGADA);
+                g.fillRect(x, y, lado, lado);
+            }
+
+            int pieza = posicion.piezaEn(casilla);
+            piezaMostrada[casilla] = pieza;
+            if (pieza != Posicion.VACIA && casilla != animadaHasta) {
+                dibujarPieza(g, pieza, x, y, lado, tamanoIcono);
+            }
+
+            if (casilla == seleccionada) {
+                g.setColor(SELECCION);
+                g.setStroke(TRAZO_SELECCION);
+                g.drawRect(x + 1, y + 1, lado - 3, lado - 3);
+            }
+            if ((destinos & Posicion.bit(casilla)) != 0) {
+                g.setColor(DESTINO);
+                if (pieza == Posicion.VACIA) {
+                    int d = lado / 3;
+                    g.fillOval(x + (lado - d) / 2, y + (lado - d) / 2, d, d);
+                } else {
+                    if (lado != ladoTrazoCaptura) {
+                        trazoCaptura = new BasicStroke(Math.max(lado / 14f, 2f));
+                        ladoTrazoCaptura = lado;
+                    }
+                    g.setStroke(trazoCaptura);
+                    g.drawOval(x + lado / 14, y + lado / 14, lado - lado / 7, lado - lado / 7);
+                }
+            }
+        }
+
+        // La pieza en movimiento va encima de todo
+        if (animadaHasta != -1) {
+            int pieza = posicion.piezaEn(animadaHasta);
+            if (pieza != Posicion.VACIA) {
+                double t = progresoAnimacion();
+                double x = x0 + (Posicion.columna(animadaDesde) + (Posicion.columna(animadaHasta) - Posicion.columna(animadaDesde)) * t) * lado;
+                double y = y0 + (Posicion.fila(animadaDesde) + (Posicion.fila(animadaHasta) - Posicion.fila(animadaDesde)) * t) * lado;
+                dibujarPieza(g, pieza, (int) x, (int) y, lado, tamanoIcono);
+            }
+        }
+    }
+
+    private void dibujarPieza(Graphics2D g, int pieza, int x, int y, int lado, int tamanoIcono) {
+        BufferedImage imagen = iconos.imagen(pieza, tamanoIcono);
+        if (imagen != null) {
+            g.drawImage(imagen, x + (lado - tamanoIcono) / 2, y + (lado - tamanoIcono) / 2, null);
+        }
+    }
+
+    private void avanzarAnimacion() {
+        // Repinta solo el rectángulo que cubre el recorrido de la pieza
+        repaint(areaAnimada());
+        if (progresoAnimacion() >= 1.0) {
+            terminarAnimacion();
+        }
+    }
+
+    private void terminarAnimacion() {
+        if (animadaHasta != -1) {
+            temporizador.stop();
+            repaint(areaAnimada());
+            animadaDesde = -1;
+            animadaHasta = -1;
+        }
+    }
+
+    private double progresoAnimacion() {
+        double t = (System.nanoTime() - inicioAnimacion) / (DURACION_ANIMACION_MS * 1_000_000.0);
+        return Math.min(t, 1.0);
+    }
+
+    private Rectangle areaAnimada() {
+        Rectangle desde = rectangulo(animadaDesde);
+        areaAnimada.setBounds(desde);
+        areaAnimada.add(rectangulo(animadaHasta));
+        return areaAnimada;
+    }
+
+    // Repinta las casillas cuya pieza no coincide con la que se dibujó la última vez
+    private void repintarCambios() {
+        for (int casilla = 0; casilla < 64; casilla++) {
+            if (posicion.piezaEn(casilla) != piezaMostrada[casilla]) {
+                repintarCasilla(casilla);
+            }
+        }
+    }
+
+    private void repintarJugada(int movimiento) {
+        if (movimiento != Movimiento.NINGUNO) {
+            repintarCasilla(Movimiento.desde(movimiento));
+            repintarCasilla(Movimiento.hasta(movimiento));
+        }
+    }
+
+    private void repintarCasillas(long casillas) {
+        while (casillas != 0) {
+            repintarCasilla(Long.numberOfTrailingZeros(casillas));
+            casillas &= casillas - 1;
+        }
+    }
+
+    private void repintarCasilla(int casilla) {
+        repaint(rectangulo(casilla));
+    }
+
+    private Rectangle rectangulo(int casilla) {
+        int lado = lado();
+        return new Rectangle(margenX(lado) + Posicion.columna(casilla) * lado,
+                margenY(lado) + Posicion.fila(casilla) * lado, lado, lado);
+    }
+
+    // Lado de una casilla: el tablero es el mayor cuadrado que entra, centrado
+    private int lado() {
+        return Math.max(Math.min(getWidth(), getHeight()) / 8, 1);
+    }
+
+    private int margenX(int lado) {
+        return (getWidth() - lado * 8) / 2;
+    }
+
+    private int margenY(int lado) {
+        return (getHeight() - lado * 8) / 2;
+    }
+}
@@ -0,0 +1,191 @@
+// Una partida completa sin interfaz: posición, jugadas hechas y resultado.
+// No muestra diálogos ni termina el proceso, así que se pueden jugar muchas a la vez en la misma
+// JVM (bot contra bot, torneos, pruebas). TableroAjedrez es solo una vista sobre una Partida.
+// No es segura entre hilos: cada hilo juega sus propias partidas.
+public class Partida {
+
+    // Resultado
+    public static final int EN_CURSO = 0;
+    public static final int GANAN_BLANCAS = 1;
+    public static final int GANAN_NEGRAS = 2;
+    public static final int TABLAS = 3;
+
+    // Motivo del final
+    public static final int NINGUNO = 0;
+    public static final int JAQUE_MATE = 1;
+    public static final int AHOGADO = 2;
+    public static final int REPETICION = 3;
+    public static final int CINCUENTA_MOVIMIENTOS = 4;
+    public static final int MATERIAL_INSUFICIENTE = 5;
+    public static final int ABANDONO = 6;
+
+    public static final String[] NOMBRE_RESULTADO = {"*", "1-0", "0-1", "1/2-1/2"};
+    public static final String[] NOMBRE_MOTIVO = {"", "jaque mate", "ahogado", "triple repetición",
+            "regla de los cincuenta movimientos", "material insuficiente", "abandono"};
+
+    private static final long CASILLAS_CLARAS = 0xAA55AA55AA55AA55L; // a8 es clara
+
+    private final Posicion pos;
+    private final MovimientosLegales legales = new MovimientosLegales();
+    private int[] jugadas = new int[256];
+    private int cantidadJugadas;
+    private int resultado;
+    private int motivo;
+
+    public Partida() {
+        this(Posicion.inicial());
+    }
+
+    // Empieza desde una copia de la posición dada
+    public Partida(Posicion inicial) {
+        pos = inicial.copia();
+        actualizarResultado();
+    }
+
+    public static Partida desdeFen(String fen) {
+        return new Partida(Posicion.desdeFen(fen));
+    }
+
+    // La posición actual. Es de solo lectura: para jugar hay que usar jugar()
+    public Posicion posicion() {
+        return pos;
+    }
+
+    public int turno() {
+        return pos.turno();
+    }
+
+    // Movimientos legales de la posición actual (vacío si la partida terminó por mate o ahogado)
+    public MovimientosLegales legales() {
+        legales.actualizar(pos);
+        return legales;
+    }
+
+    // El movimiento legal de una casilla a otra, coronando con tipoCoronacion si es un peón que
+    // llega a la última fila; Movimiento.NINGUNO si no hay ninguno
+    public int buscarMovimiento(int desde, int hasta, int tipoCoronacion) {
+        int movimiento = legales().buscar(desde, hasta);
+        if (movimiento != Movimiento.NINGUNO && Movimiento.especial(movimiento) == Movimiento.CORONACION) {
+            if (tipoCoronacion < Posicion.CABALLO || tipoCoronacion > Posicion.REINA) {
+                return Movimiento.NINGUNO;
+            }
+            movimiento = Movimiento.coronacion(desde, hasta, tipoCoronacion);
+        }
+        return movimiento;
+    }
+
+    // Juega un movimiento si es legal y la partida no terminó; devuelve si se jugó
+    public boolean jugar(int movimiento) {
+        if (resultado != EN_CURSO || movimiento == Movimiento.NINGUNO) {
+            return false;
+        }
+        int desde = Movimiento.desde(movimiento);
+        int hasta = Movimiento.hasta(movimiento);
+        int tipo = Movimiento.especial(movimiento) == Movimiento.CORONACION ? Movimiento.piezaCoronacion(movimiento) : Posicion.REINA;
+        if (buscarMovimiento(desde, hasta, tipo) != movimiento) {
+            return false;
+        }
+        hacer(movimiento);
+        return true;
+    }
+
+    public boolean jugar(int desde, int hasta, int tipoCoronacion) {
+        if (resultado != EN_CURSO) {
+            return false;
+        }
+        int movimiento = buscarMovimiento(desde, hasta, tipoCoronacion);
+        if (movimiento == Movimiento.NINGUNO) {
+            return false;
+        }
+        hacer(movimiento);
+        return true;
+    }
+
+    // Deshace la última jugada (y con ella un final por mate, tablas o abandono)
+    public void deshacer() {
+        if (cantidadJugadas == 0) {
+            return;
+        }
+        cantidadJugadas--;
+        pos.deshacerMovimiento();
+        actualizarResultado();
+    }
+
+    // El color abandona: gana el otro
+    public void rendirse(int color) {
+        if (resultado == EN_CURSO) {
+            resultado = color == Posicion.BLANCO ? GANAN_NEGRAS : GANAN_BLANCAS;
+            motivo = ABANDONO;
+        }
+    }
+
+    public boolean terminada() {
+        return resultado != EN_CURSO;
+    }
+
+    public int resultado() {
+        return resultado;
+    }
+
+    public int motivo() {
+        return motivo;
+    }
+
+    public int cantidadJugadas() {
+        return cantidadJugadas;
+    }
+
+    public int jugada(int indice) {
+        return jugadas[indice];
+    }
+
+    private void hacer(int movimiento) {
+        if (cantidadJugadas == jugadas.length) {
+            jugadas = java.util.Arrays.copyOf(jugadas, cantidadJugadas * 2);
+        }
+        jugadas[cantidadJugadas++] = movimiento;
+        pos.hacerMovimiento(movimiento);
+        actualizarResultado();
+    }
+
+    private void actualizarResultado() {
+        resultado = EN_CURSO;
+        motivo = NINGUNO;
+        legales.actualizar(pos);
+        if (legales.esJaqueMate()) {
+            resultado = pos.turno() == Posicion.BLANCO ? GANAN_NEGRAS : GANAN_BLANCAS;
+            motivo = JAQUE_MATE;
+        } else if (legales.esAhogado()) {
+            terminarEnTablas(AHOGADO);
+        } else if (pos.reglaCincuenta() >= 100) {
+            terminarEnTablas(CINCUENTA_MOVIMIENTOS);
+        } else if (pos.repeticiones() >= 2) {
+            terminarEnTablas(REPETICION);
+        } else if (materialInsuficiente(pos)) {
+            terminarEnTablas(MATERIAL_INSUFICIENTE);
+        }
+    }
+
+    private void terminarEnTablas(int motivo) {
+        this.resultado = TABLAS;
+        this.motivo = motivo;
+    }
+
+    // Ningún bando puede dar mate: reyes solos, una sola pieza menor, o solo alfiles del mismo color
+    static boolean materialInsuficiente(Posicion pos) {
+        long mayoresYPeones = 0;
+        for (int color = Posicion.BLANCO; color <= Posicion.NEGRO; color++) {
+            mayoresYPeones |= pos.bitboard(color, Posicion.PEON) | pos.bitboard(color, Posicion.TORRE)
+                    | pos.bitboard(color, Posicion.REINA);
+        }
+        if (mayoresYPeones != 0) {
+            return false;
+        }
+        long caballos = pos.bitboard(Posicion.BLANCO, Posicion.CABALLO) | pos.bitboard(Posicion.NEGRO, Posicion.CABALLO);
+        long alfiles = pos.bitboard(Posicion.BLANCO, Posicion.ALFIL) | pos.bitboard(Posicion.NEGRO, Posicion.ALFIL);
+        if (Long.bitCount(caballos | alfiles) <= 1) {
+            return true;
+        }
+        return caballos == 0 && ((alfiles & CASILLAS_CLARAS) == 0 || (alfiles & ~CASILLAS_CLARAS) == 0);
+    }
+}
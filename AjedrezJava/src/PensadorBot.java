@@ -0,0 +1,135 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+// Hace pensar al motor en un hilo de fondo para que la interfaz no se congele.
+// Cada pedido tiene un número de generación: cancelar() lo incrementa, así que un resultado que
+// llega tarde (de una búsqueda cancelada) se descarta en lugar de aplicarse al tablero.
+//
+// Con la ponderación activada, después de cada jugada del bot se sigue buscando, sin límite de
+// tiempo, en la posición que resultaría de la respuesta esperada del rival. Si el rival la juega,
+// la búsqueda en curso continúa con el reloj normal; si juega otra cosa, se cancela y se empieza
+// de nuevo, aprovechando al menos lo que quedó en la tabla de transposición.
+public class PensadorBot {
+
+    private final MotorBusqueda motor;
+    private final long tiempoMs;
+    private final boolean ponderar;
+    private final Executor entregas; // Donde se entregan los resultados (en la interfaz, el hilo de Swing)
+    private final ExecutorService ejecutor;
+    private final int[] auxiliar = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+
+    // Protegido por el monitor de este objeto
+    private int generacion;
+    private IntConsumer pendiente;            // A quién entregar el resultado de la búsqueda en curso
+    private long clavePonderada;              // Posición en la que se está ponderando (0 si no se pondera)
+    private int ordenPonderada;               // Orden con que se encargó la ponderación (ver MotorBusqueda.limitarTiempo)
+    private MotorBusqueda.Resultado ponderado; // Resultado de una ponderación que terminó antes de tiempo
+    private int respuestaEsperada = Movimiento.NINGUNO;
+
+    public PensadorBot(ConfiguracionMotor config, Executor entregas) {
+        this.motor = new MotorBusqueda(config);
+        this.tiempoMs = config.tiempoMs;
+        this.ponderar = config.ponderar;
+        this.entregas = entregas;
+        this.ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+            Thread t = new Thread(tarea, "bot-pensando");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Empieza a buscar el movimiento del bot. alTerminar recibe el movimiento (o Movimiento.NINGUNO
+    // si no hay) a través del ejecutor de entregas, salvo que antes se llame a cancelar().
+    public synchronized void pensar(Posicion pos, IntConsumer alTerminar) {
+        if (clavePonderada != 0 && clavePonderada == pos.clave()) {
+            // El rival jugó lo esperado: la búsqueda de fondo ya está en esta posición
+            clavePonderada = 0;
+            if (ponderado != null) {
+                entregar(generacion, alTerminar, ponderado);
+                ponderado = null;
+            } else {
+                pendiente = alTerminar;
+                motor.limitarTiempo(tiempoMs, ordenPonderada);
+            }
+            return;
+        }
+        cancelar();
+        pendiente = alTerminar;
+        lanzar(pos.copia(), tiempoMs);
+    }
+
+    // Tras la jugada del bot, busca en la posición que dejaría la respuesta esperada del rival
+    public synchronized void ponderar(Posicion pos) {
+        if (!ponderar || respuestaEsperada == Movimiento.NINGUNO
+                || !GeneradorMovimientos.esLegal(pos, respuestaEsperada, auxiliar)) {
+            return;
+        }
+        cancelar();
+        Posicion siguiente = pos.copia();
+        siguiente.hacerMovimiento(respuestaEsperada);
+        clavePonderada = siguiente.clave();
+        ordenPonderada = lanzar(siguiente, MotorBusqueda.SIN_LIMITE);
+    }
+
+    // Descarta lo que se esté pensando; su resultado ya no se entregará
+    public synchronized void cancelar() {
+        generacion++;
+        pendiente = null;
+        clavePonderada = 0;
+        ponderado = null;
+        // Si la búsqueda ya empezó para enseguida; si no, ni siquiera empieza (ver lanzar)
+        motor.detener();
+    }
+
+    // Cancela y libera el motor; el pensador no se debe usar después
+    public synchronized void cerrar() {
+        cancelar();
+        ejecutor.execute(motor::cerrar); // Después de que termine la búsqueda en curso
+        ejecutor.shutdown();
+    }
+
+    // Devuelve la orden de la búsqueda encargada
+    private int lanzar(Posicion pos, long tiempo) {
+        int id = generacion;
+        int orden = motor.orden(); // Un cancelar() posterior detiene esta búsqueda aunque aún no haya empezado
+        ejecutor.execute(() -> buscar(pos, tiempo, id, orden));
+        return orden;
+    }
+
+    // Corre en el hilo del pensador
+    // (si el rival acierta la ponderación antes de que empiece, el motor ya tiene el límite de limitarTiempo)
+    private void buscar(Posicion pos, long tiempo, int id, int orden) {
+        synchronized (this) {
+            if (id != generacion) {
+                return;
+            }
+        }
+        MotorBusqueda.Resultado r = motor.buscar(pos, tiempo, Long.MAX_VALUE, MotorBusqueda.PROFUNDIDAD_MAXIMA, orden);
+        synchronized (this) {
+            if (id != generacion) {
+                return;
+            }
+            if (pendiente == null) {
+                ponderado = r; // La ponderación terminó sola (mate, jugada única...) antes de que el rival moviera
+                return;
+            }
+            entregar(id, pendiente, r);
+            pendiente = null;
+        }
+    }
+
+    private void entregar(int id, IntConsumer destino, MotorBusqueda.Resultado r) {
+        respuestaEsperada = r.respuesta;
+        entregas.execute(() -> {
+            if (esVigente(id)) {
+                destino.accept(r.movimiento);
+            }
+        });
+    }
+
+    private synchronized boolean esVigente(int id) {
+        return id == generacion;
+    }
+}
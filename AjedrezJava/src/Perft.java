@@ -0,0 +1,230 @@
+public class Perft {
+
+    // Posiciones de referencia con su cantidad de nodos conocida: {nombre, FEN, profundidad, nodos}
+    private static final Object[][] SUITE = {
+        {"Posición inicial", Posicion.FEN_INICIAL, 5, 4865609L},
+        {"Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 4, 4085603L},
+        {"Posición 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 6, 11030083L},
+        {"Posición 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 5, 15833292L},
+        {"Posición 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 4, 2103487L},
+        {"Posición 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 4, 3894594L},
+        {"Al paso ilegal 1", "3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1", 6, 1134888L},
+        {"Al paso ilegal 2", "8/8/4k3/8/2p5/8/B2P2K1/8 w - - 0 1", 6, 1015133L},
+        {"Al paso da jaque", "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1", 6, 1440467L},
+        {"Enroque corto da jaque", "5k2/8/8/8/8/8/8/4K2R w K - 0 1", 6, 661072L},
+        {"Enroque largo da jaque", "3k4/8/8/8/8/8/8/R3K3 w Q - 0 1", 6, 803711L},
+        {"Enroque y captura de torre", "r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1", 4, 1274206L},
+        {"Enroque impedido", "r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1", 4, 1720476L},
+        {"Coronar para salir del jaque", "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1", 6, 3821001L},
+        {"Jaque descubierto", "8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1", 5, 1004658L},
+        {"Coronar dando jaque", "4k3/1P6/8/8/8/8/K7/8 w - - 0 1", 6, 217342L},
+        {"Subcoronar dando jaque", "8/P1k5/K7/8/8/8/8/8 w - - 0 1", 6, 92683L},
+        {"Autoahogado", "K1k5/8/P7/8/8/8/8/8 w - - 0 1", 6, 2217L},
+        {"Ahogado y mate", "8/k1P5/8/1K6/8/8/8/8 w - - 0 1", 7, 567584L},
+        {"Jaque doble", "8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1", 4, 23527L},
+    };
+
+    // FEN que Posicion.desdeFen tiene que rechazar: {motivo, FEN}
+    private static final String[][] FEN_INVALIDOS = {
+        {"Al paso sin peón que capturar", "4k3/3p4/8/8/8/8/8/4K3 b - e6 0 1"},
+        {"Al paso en la fila del turno", "4k3/8/8/3pP3/8/8/8/4K3 b - d6 0 1"},
+        {"Al paso con casilla ocupada", "4k3/3p4/8/3pP3/8/8/8/4K3 w - d6 0 1"},
+        {"Peones en la octava fila", "PP2k3/8/8/8/8/8/8/4K3 w - - 0 1"},
+        {"Peón en la primera fila", "4k3/8/8/8/8/8/8/p3K3 w - - 0 1"},
+        {"Rey que no mueve en jaque", "4k3/4R3/8/8/8/8/8/4K3 w - - 0 1"},
+        {"Dos reyes blancos", "4k3/8/8/8/8/8/8/3KK3 w - - 0 1"},
+        {"Sin rey negro", "8/8/8/8/8/8/8/4K3 w - - 0 1"},
+        {"Enroques sin torres negras", "4k3/8/8/8/8/8/8/4K2R w KQkq - 0 1"},
+        {"Enroque largo sin torre", "r3k2r/8/8/8/8/8/8/4K2R w KQkq - 0 1"},
+        {"Enroque con el rey movido", "r3k2r/8/8/8/8/8/8/R2K3R w KQ - 0 1"},
+        {"Regla de 50 negativa", "4k3/8/8/8/8/8/8/4K3 w - - -5 1"},
+        {"Regla de 50 fuera de rango", "4k3/8/8/8/8/8/8/4K3 w - - 70000 1"},
+        {"Número de jugada cero", "4k3/8/8/8/8/8/8/4K3 w - - 0 0"},
+    };
+
+    private final Posicion pos;
+    private final int[][] listas; // Un buffer de movimientos por nivel, reutilizado en todo el recorrido
+
+    public Perft(Posicion pos, int profundidadMaxima) {
+        this.pos = pos;
+        this.listas = new int[Math.max(profundidadMaxima, 1)][GeneradorMovimientos.MAX_MOVIMIENTOS];
+    }
+
+    // Cuenta las hojas del árbol de movimientos legales hasta la profundidad dada
+    public long contar(int profundidad) {
+        if (profundidad == 0) {
+            return 1;
+        }
+        int[] lista = listas[profundidad - 1];
+        int n = GeneradorMovimientos.generarLegales(pos, lista);
+        if (profundidad == 1) {
+            return n;
+        }
+        long nodos = 0;
+        for (int i = 0; i < n; i++) {
+            pos.hacerMovimiento(lista[i]);
+            nodos += contar(profundidad - 1);
+            pos.deshacerMovimiento();
+        }
+        return nodos;
+    }
+
+    // Igual que contar(), pero imprime el desglose por cada movimiento de la raíz
+    public long dividir(int profundidad) {
+        int[] raiz = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+        int n = GeneradorMovimientos.generarLegales(pos, raiz);
+        long nodos = 0;
+        for (int i = 0; i < n; i++) {
+            pos.hacerMovimiento(raiz[i]);
+            long parcial = contar(profundidad - 1);
+            pos.deshacerMovimiento();
+            System.out.println(Movimiento.texto(raiz[i]) + ": " + parcial);
+            nodos += parcial;
+        }
+        return nodos;
+    }
+
+    // Juega partidas al azar desde cada posición de la suite y, en cada jugada, compara lo que la
+    // posición mantiene de forma incremental (clave, clave de peones, puntaje pieza-casilla, fase) con
+    // un cálculo desde cero, relee su FEN y, al deshacer, comprueba que vuelve exactamente al estado
+    // anterior. Devuelve cuántas discrepancias encontró (0 si todo coincide).
+    public static int verificarConsistencia(long semilla, int partidasPorPosicion, int maxJugadas) {
+        java.util.Random azar = new java.util.Random(semilla);
+        int[] lista = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+        String[] fenes = new String[maxJugadas];
+        long[] claves = new long[maxJugadas];
+        int errores = 0;
+        for (Object[] caso : SUITE) {
+            for (int partida = 0; partida < partidasPorPosicion; partida++) {
+                Posicion pos = Posicion.desdeFen((String) caso[1]);
+                errores += verificarEstado(pos, (String) caso[0]);
+                int hechas = 0;
+                while (hechas < maxJugadas) {
+                    int n = GeneradorMovimientos.generarLegales(pos, lista);
+                    if (n == 0) {
+                        break;
+                    }
+                    fenes[hechas] = pos.aFen();
+                    claves[hechas] = pos.clave();
+                    if (azar.nextInt(16) == 0 && !GeneradorMovimientos.enJaque(pos)) {
+                        pos.hacerMovimientoNulo();
+                        errores += verificarEstado(pos, (String) caso[0]);
+                        pos.deshacerMovimientoNulo();
+                        errores += verificarDeshecho(pos, fenes[hechas], claves[hechas], (String) caso[0]);
+                    }
+                    pos.hacerMovimiento(lista[azar.nextInt(n)]);
+                    hechas++;
+                    errores += verificarEstado(pos, (String) caso[0]);
+                }
+                while (hechas > 0) {
+                    pos.deshacerMovimiento();
+                    hechas--;
+                    errores += verificarDeshecho(pos, fenes[hechas], claves[hechas], (String) caso[0]);
+                }
+            }
+        }
+        return errores;
+    }
+
+    // Compara los valores incrementales con un cálculo desde cero y relee el FEN de la posición
+    private static int verificarEstado(Posicion pos, String nombre) {
+        int pst = 0;
+        int fase = 0;
+        for (int c = 0; c < 64; c++) {
+            int pieza = pos.piezaEn(c);
+            if (pieza != Posicion.VACIA) {
+                pst += Evaluacion.PST[pieza][c];
+                fase += Evaluacion.FASE[pieza];
+            }
+        }
+        String fen = pos.aFen();
+        Posicion releida = Posicion.desdeFen(fen);
+        String fallo = pos.clave() != Zobrist.calcular(pos) ? "clave Zobrist"
+                : pos.clavePeones() != Zobrist.calcularPeones(pos) ? "clave de peones"
+                : pos.puntajePst() != pst ? "puntaje pieza-casilla"
+                : pos.fase() != fase ? "fase"
+                : !releida.aFen().equals(fen) || releida.clave() != pos.clave() ? "FEN releído"
+                : null;
+        if (fallo == null) {
+            return 0;
+        }
+        System.out.println("Inconsistencia (" + fallo + ") desde " + nombre + ": " + fen);
+        return 1;
+    }
+
+    private static int verificarDeshecho(Posicion pos, String fenAntes, long claveAntes, String nombre) {
+        if (pos.aFen().equals(fenAntes) && pos.clave() == claveAntes && verificarEstado(pos, nombre) == 0) {
+            return 0;
+        }
+        System.out.println("Deshacer no restauró " + fenAntes + " (quedó " + pos.aFen() + ") desde " + nombre);
+        return 1;
+    }
+
+    private static void imprimirResultado(long nodos, long nanos) {
+        double segundos = nanos / 1e9;
+        System.out.printf("Nodos: %d  Tiempo: %.3f s  Nodos/s: %.0f%n", nodos, segundos, nodos / Math.max(segundos, 1e-9));
+    }
+
+    // Corre todas las posiciones de referencia; devuelve false si alguna cuenta no coincide
+    public static boolean correrSuite() {
+        boolean todoBien = true;
+        long nodosTotales = 0;
+        long inicio = System.nanoTime();
+        for (Object[] caso : SUITE) {
+            String nombre = (String) caso[0];
+            int profundidad = (Integer) caso[2];
+            long esperado = (Long) caso[3];
+            long t = System.nanoTime();
+            long nodos = new Perft(Posicion.desdeFen((String) caso[1]), profundidad).contar(profundidad);
+            boolean ok = nodos == esperado;
+            todoBien &= ok;
+            nodosTotales += nodos;
+            System.out.printf("%-30s prof %d  %12d  %s  %6d ms%n", nombre, profundidad, nodos,
+                    ok ? "OK" : "FALLO (esperado " + esperado + ")", (System.nanoTime() - t) / 1000000);
+        }
+        imprimirResultado(nodosTotales, System.nanoTime() - inicio);
+        for (String[] caso : FEN_INVALIDOS) {
+            boolean rechazado;
+            try {
+                Posicion.desdeFen(caso[1]);
+                rechazado = false;
+            } catch (IllegalArgumentException e) {
+                rechazado = true;
+            }
+            todoBien &= rechazado;
+            System.out.printf("FEN inválido: %-30s %s%n", caso[0], rechazado ? "OK" : "FALLO (aceptado)");
+        }
+        int inconsistencias = verificarConsistencia(1, 20, 200);
+        todoBien &= inconsistencias == 0;
+        System.out.printf("Hacer/deshacer, claves, pieza-casilla y FEN en partidas al azar: %s%n",
+                inconsistencias == 0 ? "OK" : "FALLO (" + inconsistencias + " inconsistencias)");
+        System.out.println(todoBien ? "Suite perft correcta." : "Suite perft con errores.");
+        return todoBien;
+    }
+
+    // Uso:
+    //   java -cp src Perft suite
+    //   java -cp src Perft "<fen>|inicial" <profundidad> [dividir]
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].equals("suite")) {
+            System.exit(correrSuite() ? 0 : 1);
+        }
+        if (args.length < 2) {
+            System.err.println("Uso: Perft suite | Perft \"<fen>|inicial\" <profundidad> [dividir]");
+            System.exit(2);
+        }
+
+        String fen = args[0].equals("inicial") ? Posicion.FEN_INICIAL : args[0];
+        int profundidad = Integer.parseInt(args[1]);
+        boolean dividir = args.length > 2 && args[2].equals("dividir");
+        if (profundidad < 1) {
+            System.err.println("La profundidad tiene que ser al menos 1");
+            System.exit(2);
+        }
+
+        Perft perft = new Perft(Posicion.desdeFen(fen), profundidad);
+        long inicio = System.nanoTime();
+        long nodos = dividir ? perft.dividir(profundidad) : perft.contar(profundidad);
+        imprimirResultado(nodos, System.nanoTime() - inicio);
+    }
+}
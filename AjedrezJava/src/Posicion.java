@@ -0,0 +1,654 @@
+public class Posicion {
+
+    // Colores
+    public static final int BLANCO = 0;
+    public static final int NEGRO = 1;
+
+    // Tipos de pieza
+    public static final int PEON = 0;
+    public static final int CABALLO = 1;
+    public static final int ALFIL = 2;
+    public static final int TORRE = 3;
+    public static final int REINA = 4;
+    public static final int REY = 5;
+
+    public static final int VACIA = -1;
+
+    // Derechos de enroque (un bit por cada enroque)
+    public static final int ENROQUE_BLANCO_CORTO = 1;
+    public static final int ENROQUE_BLANCO_LARGO = 2;
+    public static final int ENROQUE_NEGRO_CORTO = 4;
+    public static final int ENROQUE_NEGRO_LARGO = 8;
+
+    public static final String[] NOMBRE_COLOR = {"blanco", "negro"};
+    public static final String[] NOMBRE_TIPO = {"peon", "caballo", "alfil", "torre", "reina", "rey"};
+
+    // Casillas: casilla = fila * 8 + columna, fila 0 es la fila de origen de las negras (igual que la interfaz)
+    private final long[] piezas = new long[12];      // Un bitboard por color y tipo: indice color * 6 + tipo
+    private final long[] ocupacionColor = new long[2];
+    private long ocupacion;
+    private final int[] tablero = new int[64];         // Pieza en cada casilla o VACIA
+
+    private int turno = BLANCO;
+    private int enroques;
+    private int casillaAlPaso = -1;
+    private int reglaCincuenta;
+    private int numeroJugada = 1;
+    private long clave;                               // Clave Zobrist, actualizada en cada cambio
+    private long clavePeones;                         // Clave Zobrist de los peones solamente
+    private int puntajePst;                           // Material + tablas pieza-casilla (ver Evaluacion), blancas menos negras
+    private int fase;                                 // Material sin peones ni reyes, para interpolar la evaluación
+
+    // Pila de deshacer, reservada de antemano: por cada movimiento hecho guarda el movimiento y un
+    // registro compacto con la pieza capturada, los enroques, la casilla al paso y la regla de 50
+    private int[] pilaMovimientos = new int[256];
+    private int[] pilaEstados = new int[256];
+    private long[] pilaClaves = new long[256];         // Clave antes de cada movimiento (para deshacer y repeticiones)
+    private int cantidadHechos;
+
+    public Posicion() {
+        for (int i = 0; i < 64; i++) {
+            tablero[i] = VACIA;
+        }
+    }
+
+    public static Posicion inicial() {
+        Posicion pos = new Posicion();
+        int[] filaMayor = {TORRE, CABALLO, ALFIL, REINA, REY, ALFIL, CABALLO, TORRE};
+        for (int col = 0; col < 8; col++) {
+            pos.colocarPieza(pieza(NEGRO, filaMayor[col]), casilla(0, col));
+            pos.colocarPieza(pieza(NEGRO, PEON), casilla(1, col));
+            pos.colocarPieza(pieza(BLANCO, PEON), casilla(6, col));
+            pos.colocarPieza(pieza(BLANCO, filaMayor[col]), casilla(7, col));
+        }
+        pos.setEnroques(ENROQUE_BLANCO_CORTO | ENROQUE_BLANCO_LARGO | ENROQUE_NEGRO_CORTO | ENROQUE_NEGRO_LARGO);
+        return pos;
+    }
+
+    // Filas 1 y 8, donde no puede haber peones
+    private static final long FILAS_EXTREMAS = 0xFFL | (0xFFL << 56);
+
+    // Tope de los contadores del FEN: la regla de 50 se guarda en 16 bits de pilaEstados
+    private static final int MAX_CONTADOR = 0xFFFF;
+
+    public static final String FEN_INICIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Lee una posición en notación FEN (los contadores de jugadas son opcionales). Recorre el texto
+    // una sola vez, sin expresiones regulares, y rechaza con IllegalArgumentException lo que no es
+    // una posición: filas de más o de menos, piezas desconocidas, un rey de más o de menos, peones en
+    // la primera u octava fila, el rey del bando que no mueve en jaque, derechos de enroque sin el rey o
+    // la torre en su casilla, una casilla al paso sin el peón que la dejó o contadores negativos...
+    public static Posicion desdeFen(String fen) {
+        Posicion pos = new Posicion();
+        int n = fen.length();
+        int i = 0;
+        while (i < n && fen.charAt(i) == ' ') {
+            i++;
+        }
+
+        int fila = 0;
+        int col = 0;
+        for (; i < n && fen.charAt(i) != ' '; i++) {
+            char ch = fen.charAt(i);
+            if (ch == '/') {
+                if (col != 8) {
+                    throw new IllegalArgumentException("FEN con tablero inválido: " + fen);
+                }
+                fila++;
+                col = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                col += ch - '0';
+            } else {
+                int tipo = "pnbrqk".indexOf(Character.toLowerCase(ch));
+                if (tipo < 0 || fila > 7 || col > 7) {
+                    throw new IllegalArgumentException("FEN con tablero inválido: " + fen);
+                }
+                pos.colocarPieza(pieza(Character.isUpperCase(ch) ? BLANCO : NEGRO, tipo), casilla(fila, col));
+                col++;
+            }
+            if (col > 8) {
+                throw new IllegalArgumentException("FEN con tablero inválido: " + fen);
+            }
+        }
+        if (fila != 7 || col != 8) {
+            throw new IllegalArgumentException("FEN con tablero inválido: " + fen);
+        }
+        if (Long.bitCount(pos.piezas[pieza(BLANCO, REY)]) != 1 || Long.bitCount(pos.piezas[pieza(NEGRO, REY)]) != 1) {
+            throw new IllegalArgumentException("FEN sin exactamente un rey por bando: " + fen);
+        }
+        if (((pos.piezas[pieza(BLANCO, PEON)] | pos.piezas[pieza(NEGRO, PEON)]) & FILAS_EXTREMAS) != 0) {
+            throw new IllegalArgumentException("FEN con peones en la primera u octava fila: " + fen);
+        }
+
+        String turno = campoFen(fen, i);
+        i += turno.length() + 1;
+        String enroques = campoFen(fen, i);
+        i += enroques.length() + 1;
+        String alPaso = campoFen(fen, i);
+        i += alPaso.length() + 1;
+        if (!turno.equals("w") && !turno.equals("b") || enroques.isEmpty() || alPaso.isEmpty()) {
+            throw new IllegalArgumentException("FEN incompleto: " + fen);
+        }
+        pos.setTurno(turno.equals("b") ? NEGRO : BLANCO);
+        if (Ataques.casillaAtacada(pos, pos.casillaRey(pos.turno ^ 1), pos.turno)) {
+            throw new IllegalArgumentException("FEN con el rey del bando que no mueve en jaque: " + fen);
+        }
+
+        int derechos = 0;
+        for (int j = 0; j < enroques.length(); j++) {
+            switch (enroques.charAt(j)) {
+                case 'K': derechos |= ENROQUE_BLANCO_CORTO; break;
+                case 'Q': derechos |= ENROQUE_BLANCO_LARGO; break;
+                case 'k': derechos |= ENROQUE_NEGRO_CORTO; break;
+                case 'q': derechos |= ENROQUE_NEGRO_LARGO; break;
+                case '-': break;
+                default: throw new IllegalArgumentException("FEN con enroques inválidos: " + fen);
+            }
+        }
+        if ((derechos & ~pos.enroquesPosibles()) != 0) {
+            throw new IllegalArgumentException("FEN con enroques sin el rey o la torre en su casilla: " + fen);
+        }
+        pos.setEnroques(derechos);
+
+        if (!alPaso.equals("-")) {
+            if (alPaso.length() != 2 || alPaso.charAt(0) < 'a' || alPaso.charAt(0) > 'h'
+                    || (alPaso.charAt(1) != '3' && alPaso.charAt(1) != '6')) {
+                throw new IllegalArgumentException("FEN con casilla al paso inválida: " + fen);
+            }
+            int alPasoCasilla = casilla('8' - alPaso.charAt(1), alPaso.charAt(0) - 'a');
+            // La casilla la dejó atrás un peón rival que acaba de avanzar dos: tiene que estar en la
+            // fila que corresponde al turno, con ese peón delante y las dos casillas que cruzó vacías
+            int rival = pos.turno ^ 1;
+            int paso = rival == BLANCO ? 8 : -8;
+            if (fila(alPasoCasilla) != (rival == BLANCO ? 5 : 2)
+                    || pos.tablero[alPasoCasilla - paso] != pieza(rival, PEON)
+                    || pos.tablero[alPasoCasilla] != VACIA || pos.tablero[alPasoCasilla + paso] != VACIA) {
+                throw new IllegalArgumentException("FEN con casilla al paso imposible: " + fen);
+            }
+            pos.setCasillaAlPaso(alPasoCasilla);
+        }
+
+        String cincuenta = campoFen(fen, i);
+        i += cincuenta.length() + 1;
+        String jugada = campoFen(fen, i);
+        try {
+            if (!cincuenta.isEmpty()) {
+                pos.reglaCincuenta = Integer.parseInt(cincuenta);
+            }
+            if (!jugada.isEmpty()) {
+                pos.numeroJugada = Integer.parseInt(jugada);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("FEN con contadores inválidos: " + fen);
+        }
+        if (pos.reglaCincuenta < 0 || pos.reglaCincuenta > MAX_CONTADOR
+                || pos.numeroJugada < 1 || pos.numeroJugada > MAX_CONTADOR) {
+            throw new IllegalArgumentException("FEN con contadores fuera de rango: " + fen);
+        }
+        return pos;
+    }
+
+    // Derechos de enroque que admite el tablero: los de cada bando con el rey y la torre en sus casillas de origen
+    private int enroquesPosibles() {
+        int posibles = 0;
+        if (tablero[60] == pieza(BLANCO, REY)) {
+            posibles |= (tablero[63] == pieza(BLANCO, TORRE) ? ENROQUE_BLANCO_CORTO : 0)
+                    | (tablero[56] == pieza(BLANCO, TORRE) ? ENROQUE_BLANCO_LARGO : 0);
+        }
+        if (tablero[4] == pieza(NEGRO, REY)) {
+            posibles |= (tablero[7] == pieza(NEGRO, TORRE) ? ENROQUE_NEGRO_CORTO : 0)
+                    | (tablero[0] == pieza(NEGRO, TORRE) ? ENROQUE_NEGRO_LARGO : 0);
+        }
+        return posibles;
+    }
+
+    // El campo que empieza en la posición dada, saltando espacios; vacío si no hay más
+    private static String campoFen(String fen, int inicio) {
+        int n = fen.length();
+        while (inicio < n && fen.charAt(inicio) == ' ') {
+            inicio++;
+        }
+        int fin = inicio;
+        while (fin < n && fen.charAt(fin) != ' ') {
+            fin++;
+        }
+        return inicio >= n ? "" : fen.substring(inicio, fin);
+    }
+
+    // La posición en notación FEN, con los seis campos
+    public String aFen() {
+        StringBuilder s = new StringBuilder(90);
+        for (int fila = 0; fila < 8; fila++) {
+            int vacias = 0;
+            for (int col = 0; col < 8; col++) {
+                int pieza = tablero[casilla(fila, col)];
+                if (pieza == VACIA) {
+                    vacias++;
+                    continue;
+                }
+                if (vacias > 0) {
+                    s.append((char) ('0' + vacias));
+                    vacias = 0;
+                }
+                char letra = "pnbrqk".charAt(tipoDe(pieza));
+                s.append(colorDe(pieza) == BLANCO ? Character.toUpperCase(letra) : letra);
+            }
+            if (vacias > 0) {
+                s.append((char) ('0' + vacias));
+            }
+            if (fila < 7) {
+                s.append('/');
+            }
+        }
+        s.append(turno == BLANCO ? " w " : " b ");
+        if (enroques == 0) {
+            s.append('-');
+        } else {
+            if ((enroques & ENROQUE_BLANCO_CORTO) != 0) s.append('K');
+            if ((enroques & ENROQUE_BLANCO_LARGO) != 0) s.append('Q');
+            if ((enroques & ENROQUE_NEGRO_CORTO) != 0) s.append('k');
+            if ((enroques & ENROQUE_NEGRO_LARGO) != 0) s.append('q');
+        }
+        s.append(' ').append(casillaAlPaso == -1 ? "-" : Movimiento.nombreCasilla(casillaAlPaso));
+        s.append(' ').append(reglaCincuenta).append(' ').append(numeroJugada);
+        return s.toString();
+    }
+
+    public Posicion copia() {
+        Posicion copia = new Posicion();
+        copia.copiarDe(this);
+        return copia;
+    }
+
+    // Convierte esta posición en una copia de otra reutilizando sus arreglos: las pilas solo se
+    // reservan de nuevo si la otra tiene más movimientos hechos de los que caben
+    public void copiarDe(Posicion otra) {
+        System.arraycopy(otra.piezas, 0, piezas, 0, 12);
+        System.arraycopy(otra.ocupacionColor, 0, ocupacionColor, 0, 2);
+        System.arraycopy(otra.tablero, 0, tablero, 0, 64);
+        ocupacion = otra.ocupacion;
+        turno = otra.turno;
+        enroques = otra.enroques;
+        casillaAlPaso = otra.casillaAlPaso;
+        reglaCincuenta = otra.reglaCincuenta;
+        numeroJugada = otra.numeroJugada;
+        clave = otra.clave;
+        clavePeones = otra.clavePeones;
+        puntajePst = otra.puntajePst;
+        fase = otra.fase;
+        if (pilaMovimientos.length < otra.pilaMovimientos.length) {
+            pilaMovimientos = new int[otra.pilaMovimientos.length];
+            pilaEstados = new int[otra.pilaEstados.length];
+            pilaClaves = new long[otra.pilaClaves.length];
+        }
+        cantidadHechos = otra.cantidadHechos;
+        System.arraycopy(otra.pilaMovimientos, 0, pilaMovimientos, 0, cantidadHechos);
+        System.arraycopy(otra.pilaEstados, 0, pilaEstados, 0, cantidadHechos);
+        System.arraycopy(otra.pilaClaves, 0, pilaClaves, 0, cantidadHechos);
+    }
+
+    // ---- Utilidades de codificación ----
+
+    public static int casilla(int fila, int col) {
+        return fila * 8 + col;
+    }
+
+    public static int fila(int casilla) {
+        return casilla >>> 3;
+    }
+
+    public static int columna(int casilla) {
+        return casilla & 7;
+    }
+
+    public static int pieza(int color, int tipo) {
+        return color * 6 + tipo;
+    }
+
+    public static int colorDe(int pieza) {
+        return pieza >= 6 ? NEGRO : BLANCO;
+    }
+
+    public static int tipoDe(int pieza) {
+        return pieza >= 6 ? pieza - 6 : pieza;
+    }
+
+    public static long bit(int casilla) {
+        return 1L << casilla;
+    }
+
+    // ---- Consultas ----
+
+    public int piezaEn(int casilla) {
+        return tablero[casilla];
+    }
+
+    public int piezaEn(int fila, int col) {
+        return tablero[fila * 8 + col];
+    }
+
+    public long bitboard(int color, int tipo) {
+        return piezas[color * 6 + tipo];
+    }
+
+    public long ocupacion(int color) {
+        return ocupacionColor[color];
+    }
+
+    public long ocupacion() {
+        return ocupacion;
+    }
+
+    public int casillaRey(int color) {
+        long rey = piezas[color * 6 + REY];
+        return rey == 0 ? -1 : Long.numberOfTrailingZeros(rey);
+    }
+
+    public int turno() {
+        return turno;
+    }
+
+    public int enroques() {
+        return enroques;
+    }
+
+    public boolean puedeEnrocar(int derecho) {
+        return (enroques & derecho) != 0;
+    }
+
+    public int casillaAlPaso() {
+        return casillaAlPaso;
+    }
+
+    public int reglaCincuenta() {
+        return reglaCincuenta;
+    }
+
+    public int numeroJugada() {
+        return numeroJugada;
+    }
+
+    public long clave() {
+        return clave;
+    }
+
+    public long clavePeones() {
+        return clavePeones;
+    }
+
+    public int puntajePst() {
+        return puntajePst;
+    }
+
+    public int fase() {
+        return fase;
+    }
+
+    // Repetición: la misma clave apareció antes desde la última captura o movimiento de peón
+    public boolean esRepeticion() {
+        int limite = Math.max(cantidadHechos - reglaCincuenta, 0);
+        for (int i = cantidadHechos - 2; i >= limite; i -= 2) {
+            if (pilaClaves[i] == clave) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Cuántas veces apareció antes la posición actual (para la triple repetición basta con 2)
+    public int repeticiones() {
+        int veces = 0;
+        int limite = Math.max(cantidadHechos - reglaCincuenta, 0);
+        for (int i = cantidadHechos - 2; i >= limite; i -= 2) {
+            if (pilaClaves[i] == clave) {
+                veces++;
+            }
+        }
+        return veces;
+    }
+
+    // Cantidad de movimientos que se pueden deshacer
+    public int cantidadHechos() {
+        return cantidadHechos;
+    }
+
+    public int ultimoMovimiento() {
+        return cantidadHechos == 0 ? Movimiento.NINGUNO : pilaMovimientos[cantidadHechos - 1];
+    }
+
+    // ---- Modificación ----
+
+    public void colocarPieza(int pieza, int casilla) {
+        if (tablero[casilla] != VACIA) {
+            quitarPieza(casilla);
+        }
+        long b = 1L << casilla;
+        piezas[pieza] |= b;
+        ocupacionColor[colorDe(pieza)] |= b;
+        ocupacion |= b;
+        tablero[casilla] = pieza;
+        clave ^= Zobrist.PIEZA[pieza][casilla];
+        clavePeones ^= Zobrist.PEON[pieza][casilla];
+        puntajePst += Evaluacion.PST[pieza][casilla];
+        fase += Evaluacion.FASE[pieza];
+    }
+
+    public void quitarPieza(int casilla) {
+        int pieza = tablero[casilla];
+        if (pieza == VACIA) {
+            return;
+        }
+        long b = ~(1L << casilla);
+        piezas[pieza] &= b;
+        ocupacionColor[colorDe(pieza)] &= b;
+        ocupacion &= b;
+        tablero[casilla] = VACIA;
+        clave ^= Zobrist.PIEZA[pieza][casilla];
+        clavePeones ^= Zobrist.PEON[pieza][casilla];
+        puntajePst -= Evaluacion.PST[pieza][casilla];
+        fase -= Evaluacion.FASE[pieza];
+    }
+
+    public void setTurno(int turno) {
+        if (turno != this.turno) {
+            clave ^= Zobrist.TURNO;
+        }
+        this.turno = turno;
+    }
+
+    public void setEnroques(int enroques) {
+        clave ^= Zobrist.ENROQUE[this.enroques] ^ Zobrist.ENROQUE[enroques];
+        this.enroques = enroques;
+    }
+
+    public void setCasillaAlPaso(int casillaAlPaso) {
+        if (this.casillaAlPaso != -1) {
+            clave ^= Zobrist.AL_PASO[columna(this.casillaAlPaso)];
+        }
+        if (casillaAlPaso != -1) {
+            clave ^= Zobrist.AL_PASO[columna(casillaAlPaso)];
+        }
+        this.casillaAlPaso = casillaAlPaso;
+    }
+
+    // Hace un movimiento legal (ver GeneradorMovimientos) sobre la misma posición, sin copiarla:
+    // resuelve enroque, captura al paso y coronación, actualiza los derechos de enroque y pasa el turno.
+    // Se revierte con deshacerMovimiento().
+    public void hacerMovimiento(int movimiento) {
+        int desde = Movimiento.desde(movimiento);
+        int hasta = Movimiento.hasta(movimiento);
+        int especial = Movimiento.especial(movimiento);
+        int pieza = tablero[desde];
+        int color = colorDe(pieza);
+        int capturada = tablero[hasta];
+
+        if (cantidadHechos == pilaMovimientos.length) {
+            pilaMovimientos = java.util.Arrays.copyOf(pilaMovimientos, cantidadHechos * 2);
+            pilaEstados = java.util.Arrays.copyOf(pilaEstados, cantidadHechos * 2);
+            pilaClaves = java.util.Arrays.copyOf(pilaClaves, cantidadHechos * 2);
+        }
+        pilaMovimientos[cantidadHechos] = movimiento;
+        pilaClaves[cantidadHechos] = clave;
+        pilaEstados[cantidadHechos] = (capturada + 1) | (enroques << 4) | ((casillaAlPaso + 1) << 8) | (reglaCincuenta << 16);
+        cantidadHechos++;
+
+        if (capturada != VACIA) {
+            retirar(capturada, hasta);
+        }
+        retirar(pieza, desde);
+        agregar(pieza, hasta);
+
+        if (especial == Movimiento.ENROQUE) {
+            // El rey se mueve dos columnas y la torre salta a su lado
+            int torre = pieza(color, TORRE);
+            if (hasta > desde) {
+                retirar(torre, hasta + 1);
+                agregar(torre, hasta - 1);
+            } else {
+                retirar(torre, hasta - 2);
+                agregar(torre, hasta + 1);
+            }
+        } else if (especial == Movimiento.AL_PASO) {
+            // El peón capturado está en la fila de origen, en la columna de destino
+            retirar(pieza(color ^ 1, PEON), casilla(fila(desde), columna(hasta)));
+            capturada = pieza(color ^ 1, PEON);
+        } else if (especial == Movimiento.CORONACION) {
+            retirar(pieza, hasta);
+            agregar(pieza(color, Movimiento.piezaCoronacion(movimiento)), hasta);
+        }
+
+        int nuevosEnroques = enroques & ~(derechosPerdidos(desde) | derechosPerdidos(hasta));
+        clave ^= Zobrist.ENROQUE[enroques] ^ Zobrist.ENROQUE[nuevosEnroques];
+        enroques = nuevosEnroques;
+
+        if (casillaAlPaso != -1) {
+            clave ^= Zobrist.AL_PASO[columna(casillaAlPaso)];
+            casillaAlPaso = -1;
+        }
+        if (tipoDe(pieza) == PEON && Math.abs(hasta - desde) == 16) {
+            casillaAlPaso = (desde + hasta) / 2;
+            clave ^= Zobrist.AL_PASO[columna(casillaAlPaso)];
+        }
+
+        reglaCincuenta = (tipoDe(pieza) == PEON || capturada != VACIA) ? 0 : reglaCincuenta + 1;
+        if (turno == NEGRO) {
+            numeroJugada++;
+        }
+        turno ^= 1;
+        clave ^= Zobrist.TURNO;
+    }
+
+    // Movimiento nulo: el bando que mueve pasa el turno sin mover (lo usa la búsqueda para podar).
+    // Reinicia la regla de 50 para que la detección de repeticiones no cruce el movimiento nulo.
+    // Se revierte con deshacerMovimientoNulo().
+    public void hacerMovimientoNulo() {
+        if (cantidadHechos == pilaMovimientos.length) {
+            pilaMovimientos = java.util.Arrays.copyOf(pilaMovimientos, cantidadHechos * 2);
+            pilaEstados = java.util.Arrays.copyOf(pilaEstados, cantidadHechos * 2);
+            pilaClaves = java.util.Arrays.copyOf(pilaClaves, cantidadHechos * 2);
+        }
+        pilaMovimientos[cantidadHechos] = Movimiento.NINGUNO;
+        pilaClaves[cantidadHechos] = clave;
+        pilaEstados[cantidadHechos] = (enroques << 4) | ((casillaAlPaso + 1) << 8) | (reglaCincuenta << 16);
+        cantidadHechos++;
+
+        if (casillaAlPaso != -1) {
+            clave ^= Zobrist.AL_PASO[columna(casillaAlPaso)];
+            casillaAlPaso = -1;
+        }
+        reglaCincuenta = 0;
+        turno ^= 1;
+        clave ^= Zobrist.TURNO;
+    }
+
+    public void deshacerMovimientoNulo() {
+        cantidadHechos--;
+        int estado = pilaEstados[cantidadHechos];
+        casillaAlPaso = ((estado >>> 8) & 127) - 1;
+        reglaCincuenta = estado >>> 16;
+        turno ^= 1;
+        clave = pilaClaves[cantidadHechos];
+    }
+
+    // Revierte el último movimiento hecho con hacerMovimiento()
+    public void deshacerMovimiento() {
+        cantidadHechos--;
+        int movimiento = pilaMovimientos[cantidadHechos];
+        int estado = pilaEstados[cantidadHechos];
+        int desde = Movimiento.desde(movimiento);
+        int hasta = Movimiento.hasta(movimiento);
+        int especial = Movimiento.especial(movimiento);
+
+        turno ^= 1;
+        if (turno == NEGRO) {
+            numeroJugada--;
+        }
+        int capturada = (estado & 15) - 1;
+        enroques = (estado >>> 4) & 15;
+        casillaAlPaso = ((estado >>> 8) & 127) - 1;
+        reglaCincuenta = estado >>> 16;
+
+        int pieza = tablero[hasta];
+        if (especial == Movimiento.CORONACION) {
+            retirar(pieza, hasta);
+            pieza = pieza(turno, PEON);
+            agregar(pieza, hasta);
+        }
+        retirar(pieza, hasta);
+        agregar(pieza, desde);
+
+        if (especial == Movimiento.ENROQUE) {
+            int torre = pieza(turno, TORRE);
+            if (hasta > desde) {
+                retirar(torre, hasta - 1);
+                agregar(torre, hasta + 1);
+            } else {
+                retirar(torre, hasta + 1);
+                agregar(torre, hasta - 2);
+            }
+        } else if (especial == Movimiento.AL_PASO) {
+            agregar(pieza(turno ^ 1, PEON), casilla(fila(desde), columna(hasta)));
+        } else if (capturada != VACIA) {
+            agregar(capturada, hasta);
+        }
+        clave = pilaClaves[cantidadHechos]; // Los cambios de pieza de arriba también tocaron la clave
+    }
+
+    // Primitivas sin comprobaciones para hacer y deshacer movimientos
+    private void agregar(int pieza, int casilla) {
+        long b = 1L << casilla;
+        piezas[pieza] |= b;
+        ocupacionColor[pieza >= 6 ? NEGRO : BLANCO] |= b;
+        ocupacion |= b;
+        tablero[casilla] = pieza;
+        clave ^= Zobrist.PIEZA[pieza][casilla];
+        clavePeones ^= Zobrist.PEON[pieza][casilla];
+        puntajePst += Evaluacion.PST[pieza][casilla];
+        fase += Evaluacion.FASE[pieza];
+    }
+
+    private void retirar(int pieza, int casilla) {
+        long b = ~(1L << casilla);
+        piezas[pieza] &= b;
+        ocupacionColor[pieza >= 6 ? NEGRO : BLANCO] &= b;
+        ocupacion &= b;
+        tablero[casilla] = VACIA;
+        clave ^= Zobrist.PIEZA[pieza][casilla];
+        clavePeones ^= Zobrist.PEON[pieza][casilla];
+        puntajePst -= Evaluacion.PST[pieza][casilla];
+        fase -= Evaluacion.FASE[pieza];
+    }
+
+    // Derechos de enroque que se pierden cuando una pieza sale de (o es capturada en) la casilla
+    private static int derechosPerdidos(int casilla) {
+        switch (casilla) {
+            case 60: return ENROQUE_BLANCO_CORTO | ENROQUE_BLANCO_LARGO; // e1
+            case 63: return ENROQUE_BLANCO_CORTO;                        // h1
+            case 56: return ENROQUE_BLANCO_LARGO;                        // a1
+            case 4:  return ENROQUE_NEGRO_CORTO | ENROQUE_NEGRO_LARGO;   // e8
+            case 7:  return ENROQUE_NEGRO_CORTO;                         // h8
+            case 0:  return ENROQUE_NEGRO_LARGO;                         // a8
+            default: return 0;
+        }
+    }
+}
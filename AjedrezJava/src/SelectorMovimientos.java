@@ -0,0 +1,187 @@
+// Entrega los movimientos de un nodo de búsqueda por etapas, en el orden en que conviene probarlos:
+//   1. el movimiento de la tabla de transposición,
+//   2. capturas y coronaciones que no pierden material según SEE, por MVV-LVA,
+//   3. los dos killers del ply,
+//   4. el contra-movimiento a la última jugada del rival,
+//   5. el resto de los tranquilos según la tabla de historia,
+//   6. las capturas que pierden material.
+// En la búsqueda de quietud solo entrega la etapa 2 y descarta las capturas perdedoras.
+// Cada etapa se genera solo cuando se llega a ella: si el movimiento de la tabla produce un corte
+// no se genera nada, y si corta una captura no se generan los tranquilos. Dentro de una etapa se
+// elige el mejor que queda en cada llamada en lugar de ordenar toda la lista.
+public class SelectorMovimientos {
+
+    private static final int HASH = 0;
+    private static final int GENERAR_TACTICOS = 1;
+    private static final int TACTICOS = 2;
+    private static final int KILLER_1 = 3;
+    private static final int KILLER_2 = 4;
+    private static final int CONTRA = 5;
+    private static final int GENERAR_TRANQUILOS = 6;
+    private static final int TRANQUILOS = 7;
+    private static final int MALAS_CAPTURAS = 8;
+    private static final int FIN = 9;
+
+    private final int[] lista = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private final int[] malas = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private final int[] puntajes = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private final int[] auxiliar = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+
+    private Posicion pos;
+    private int[] historia; // Historia del bando que mueve, indexada por origen * 64 + destino
+    private int movimientoHash;
+    private int killer1;
+    private int killer2;
+    private int contra;
+    private boolean soloTacticos;
+    private int etapa;
+    private int cantidad;
+    private int indice;
+    private int cantidadMalas;
+
+    public void iniciar(Posicion pos, int movimientoHash, int killer1, int killer2, int contra, int[] historia) {
+        this.pos = pos;
+        this.historia = historia;
+        this.movimientoHash = movimientoHash;
+        this.killer1 = killer1;
+        this.killer2 = killer2;
+        this.contra = contra;
+        this.soloTacticos = false;
+        this.etapa = HASH;
+    }
+
+    // Para la búsqueda de quietud: solo capturas y coronaciones que no pierden material
+    public void iniciarQuiescencia(Posicion pos) {
+        this.pos = pos;
+        this.movimientoHash = Movimiento.NINGUNO;
+        this.soloTacticos = true;
+        this.etapa = GENERAR_TACTICOS;
+    }
+
+    // Devuelve el siguiente movimiento legal, o Movimiento.NINGUNO cuando no quedan
+    public int siguiente() {
+        while (true) {
+            switch (etapa) {
+                case HASH:
+                    etapa = GENERAR_TACTICOS;
+                    if (movimientoHash != Movimiento.NINGUNO && GeneradorMovimientos.esLegal(pos, movimientoHash, auxiliar)) {
+                        return movimientoHash;
+                    }
+                    movimientoHash = Movimiento.NINGUNO;
+                    break;
+
+                case GENERAR_TACTICOS:
+                    cantidad = GeneradorMovimientos.generarTacticos(pos, lista);
+                    indice = 0;
+                    cantidadMalas = 0;
+                    for (int i = 0; i < cantidad; i++) {
+                        puntajes[i] = mvvLva(lista[i]);
+                    }
+                    etapa = TACTICOS;
+                    break;
+
+                case TACTICOS: {
+                    int m = elegirMejor();
+                    if (m == Movimiento.NINGUNO) {
+                        etapa = soloTacticos ? FIN : KILLER_1;
+                    } else if (m == movimientoHash) {
+                        break;
+                    } else if (!Intercambio.alMenos(pos, m, 0)) {
+                        if (!soloTacticos) {
+                            malas[cantidadMalas++] = m; // Se prueba al final
+                        }
+                    } else {
+                        return m;
+                    }
+                    break;
+                }
+
+                case KILLER_1:
+                    etapa = KILLER_2;
+                    if (esTranquiloValido(killer1)) {
+                        return killer1;
+                    }
+                    break;
+
+                case KILLER_2:
+                    etapa = CONTRA;
+                    if (killer2 != killer1 && esTranquiloValido(killer2)) {
+                        return killer2;
+                    }
+                    break;
+
+                case CONTRA:
+                    etapa = GENERAR_TRANQUILOS;
+                    if (contra != killer1 && contra != killer2 && esTranquiloValido(contra)) {
+                        return contra;
+                    }
+                    break;
+
+                case GENERAR_TRANQUILOS:
+                    cantidad = GeneradorMovimientos.generarTranquilos(pos, lista);
+                    indice = 0;
+                    for (int i = 0; i < cantidad; i++) {
+                        puntajes[i] = historia[Movimiento.desde(lista[i]) * 64 + Movimiento.hasta(lista[i])];
+                    }
+                    etapa = TRANQUILOS;
+                    break;
+
+                case TRANQUILOS: {
+                    int m = elegirMejor();
+                    if (m == Movimiento.NINGUNO) {
+                        etapa = MALAS_CAPTURAS;
+                        indice = 0;
+                    } else if (m != movimientoHash && m != killer1 && m != killer2 && m != contra) {
+                        return m;
+                    }
+                    break;
+                }
+
+                case MALAS_CAPTURAS:
+                    if (indice < cantidadMalas) {
+                        return malas[indice++];
+                    }
+                    etapa = FIN;
+                    break;
+
+                default:
+                    return Movimiento.NINGUNO;
+            }
+        }
+    }
+
+    // Selección parcial: lleva el de mayor puntaje que queda a la posición actual
+    private int elegirMejor() {
+        if (indice >= cantidad) {
+            return Movimiento.NINGUNO;
+        }
+        int mejor = indice;
+        for (int i = indice + 1; i < cantidad; i++) {
+            if (puntajes[i] > puntajes[mejor]) {
+                mejor = i;
+            }
+        }
+        int m = lista[mejor];
+        lista[mejor] = lista[indice];
+        puntajes[mejor] = puntajes[indice];
+        indice++;
+        return m;
+    }
+
+    // Los killers y el contra-movimiento vienen de otras posiciones: hay que comprobarlos
+    private boolean esTranquiloValido(int movimiento) {
+        return movimiento != Movimiento.NINGUNO && movimiento != movimientoHash
+                && !GeneradorMovimientos.esTactico(pos, movimiento)
+                && GeneradorMovimientos.esLegal(pos, movimiento, auxiliar);
+    }
+
+    private int mvvLva(int movimiento) {
+        int victima = pos.piezaEn(Movimiento.hasta(movimiento));
+        int valor = victima != Posicion.VACIA ? Evaluacion.VALOR[Posicion.tipoDe(victima)]
+                : Movimiento.especial(movimiento) == Movimiento.AL_PASO ? Evaluacion.VALOR[Posicion.PEON] : 0;
+        if (Movimiento.especial(movimiento) == Movimiento.CORONACION) {
+            valor += Evaluacion.VALOR[Movimiento.piezaCoronacion(movimiento)];
+        }
+        return valor * 16 - Evaluacion.VALOR[Posicion.tipoDe(pos.piezaEn(Movimiento.desde(movimiento)))] / 100;
+    }
+}
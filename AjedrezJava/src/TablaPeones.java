@@ -0,0 +1,73 @@
+// Caché de la evaluación de la estructura de peones, indexada por la clave de peones de la posición.
+// Entre nodos vecinos los peones casi nunca cambian, así que la mayoría de las consultas aciertan.
+//
+// Cada entrada ocupa cuatro long: {clave, estructura, escudo blanco, escudo negro}. La estructura
+// es el puntaje empaquetado de peones doblados, aislados, retrasados y pasados (blancas menos
+// negras). Los escudos guardan, para cada columna donde podría estar el rey, el valor de los
+// peones que lo cubrirían desde su fila de origen (un byte por columna).
+//
+// No es segura entre hilos: cada hilo de búsqueda tiene la suya.
+public class TablaPeones {
+
+    private static final int LONGS_POR_ENTRADA = 4;
+
+    private final long[] entradas;
+    private final int mascara;
+    private long aciertos;
+    private long fallos;
+
+    public TablaPeones(int kilobytes) {
+        long cantidad = Math.max(kilobytes, 1) * 1024L / (LONGS_POR_ENTRADA * 8);
+        cantidad = Long.highestOneBit(Math.max(Math.min(cantidad, Integer.MAX_VALUE / LONGS_POR_ENTRADA), 1));
+        entradas = new long[(int) cantidad * LONGS_POR_ENTRADA];
+        mascara = (int) cantidad - 1;
+    }
+
+    // Devuelve el índice de la entrada de la posición, calculándola si no estaba
+    public int buscar(Posicion pos) {
+        long clave = pos.clavePeones();
+        int i = ((int) clave & mascara) * LONGS_POR_ENTRADA;
+        if (entradas[i] == clave && entradas[i + 1] != 0) {
+            aciertos++;
+            return i;
+        }
+        fallos++;
+        int estructura = Evaluacion.estructuraPeones(pos, Posicion.BLANCO) - Evaluacion.estructuraPeones(pos, Posicion.NEGRO);
+        entradas[i] = clave;
+        entradas[i + 1] = (estructura & 0xFFFFFFFFL) | (1L << 32); // El bit 32 marca la entrada como usada
+        entradas[i + 2] = escudos(pos, Posicion.BLANCO);
+        entradas[i + 3] = escudos(pos, Posicion.NEGRO);
+        return i;
+    }
+
+    public int estructura(int indice) {
+        return (int) entradas[indice + 1];
+    }
+
+    // Valor (medio juego) del escudo de peones de un rey en esa columna y en su fila de origen
+    public int escudo(int indice, int color, int columna) {
+        return (int) (entradas[indice + 2 + color] >>> (columna * 8)) & 0xFF;
+    }
+
+    public long aciertos() {
+        return aciertos;
+    }
+
+    public long fallos() {
+        return fallos;
+    }
+
+    public void limpiar() {
+        java.util.Arrays.fill(entradas, 0L);
+        aciertos = 0;
+        fallos = 0;
+    }
+
+    private static long escudos(Posicion pos, int color) {
+        long resultado = 0L;
+        for (int col = 0; col < 8; col++) {
+            resultado |= (long) Evaluacion.escudoDesdeOrigen(pos, color, col) << (col * 8);
+        }
+        return resultado;
+    }
+}
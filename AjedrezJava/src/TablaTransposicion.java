@@ -0,0 +1,135 @@
+// Tabla de transposición de tamaño fijo sobre un long[] reservado de antemano.
+//
+// Cada entrada ocupa dos long: {clave ^ datos, datos}. Al leer se comprueba que
+// (primero ^ datos) == clave; si otro hilo escribió la entrada a medias, la comprobación falla
+// y la entrada se ignora. Así la tabla se puede compartir entre hilos sin bloqueos.
+//
+// Las entradas se agrupan en cubetas de dos: la primera se reemplaza solo por una búsqueda más
+// profunda o por una entrada de una búsqueda anterior (preferencia por profundidad); la segunda
+// se reemplaza siempre.
+public class TablaTransposicion {
+
+    public static final int EXACTA = 1;   // La puntuación es el valor exacto
+    public static final int INFERIOR = 2; // Hubo corte beta: el valor es al menos la puntuación
+    public static final int SUPERIOR = 3; // Ningún movimiento superó alfa: el valor es como mucho la puntuación
+
+    private static final int LONGS_POR_CUBETA = 4;
+
+    private final long[] entradas;
+    private final int mascara; // Cantidad de cubetas - 1
+    private int edad;
+
+    public TablaTransposicion(int megabytes) {
+        long cubetas = Math.max(megabytes, 1) * 1024L * 1024L / (LONGS_POR_CUBETA * 8);
+        cubetas = Long.highestOneBit(Math.min(cubetas, Integer.MAX_VALUE / LONGS_POR_CUBETA));
+        entradas = new long[(int) cubetas * LONGS_POR_CUBETA];
+        mascara = (int) cubetas - 1;
+    }
+
+    // Marca el comienzo de una búsqueda nueva: las entradas viejas pasan a ser reemplazables
+    public void nuevaBusqueda() {
+        edad = (edad + 1) & 0xFF;
+    }
+
+    public void limpiar() {
+        java.util.Arrays.fill(entradas, 0L);
+        edad = 0;
+    }
+
+    // Devuelve los datos de la entrada para la clave, o 0 si no está
+    public long buscar(long clave) {
+        int i = indice(clave);
+        long datos = entradas[i + 1];
+        if ((entradas[i] ^ datos) == clave && datos != 0) {
+            return datos;
+        }
+        datos = entradas[i + 3];
+        if ((entradas[i + 2] ^ datos) == clave && datos != 0) {
+            return datos;
+        }
+        return 0L;
+    }
+
+    public void guardar(long clave, int movimiento, int puntuacion, int profundidad, int tipo, int ply) {
+        int i = indice(clave);
+        long actual = entradas[i + 1];
+        boolean mismaClave = (entradas[i] ^ actual) == clave;
+
+        // Sin movimiento nuevo se conserva el que ya había para esta posición
+        if (movimiento == Movimiento.NINGUNO && mismaClave) {
+            movimiento = movimiento(actual);
+        }
+        long datos = empaquetar(movimiento, aTabla(puntuacion, ply), profundidad, tipo, edad);
+
+        if (mismaClave || actual == 0 || edad(actual) != edad || profundidad >= profundidad(actual)) {
+            entradas[i] = clave ^ datos;
+            entradas[i + 1] = datos;
+        } else {
+            entradas[i + 2] = clave ^ datos;
+            entradas[i + 3] = datos;
+        }
+    }
+
+    // Uso aproximado en tanto por mil, mirando las primeras cubetas
+    public int ocupacionPorMil() {
+        int muestra = Math.min(1000, mascara + 1);
+        int usadas = 0;
+        for (int c = 0; c < muestra; c++) {
+            if (entradas[c * LONGS_POR_CUBETA + 1] != 0 && edad(entradas[c * LONGS_POR_CUBETA + 1]) == edad) {
+                usadas++;
+            }
+        }
+        return usadas * 1000 / muestra;
+    }
+
+    private int indice(long clave) {
+        return ((int) (clave >>> 32) & mascara) * LONGS_POR_CUBETA;
+    }
+
+    // Bits: movimiento 0-15, puntuación 16-31 (con signo), profundidad 32-39, tipo 40-41, edad 48-55
+    private static long empaquetar(int movimiento, int puntuacion, int profundidad, int tipo, int edad) {
+        return (movimiento & 0xFFFFL)
+                | ((puntuacion & 0xFFFFL) << 16)
+                | ((long) (profundidad & 0xFF) << 32)
+                | ((long) tipo << 40)
+                | ((long) edad << 48);
+    }
+
+    public static int movimiento(long datos) {
+        return (int) (datos & 0xFFFF);
+    }
+
+    // Puntuación desde la raíz: los mates se guardan relativos al nodo y aquí se vuelven a ajustar
+    public static int puntuacion(long datos, int ply) {
+        int valor = (short) (datos >>> 16);
+        if (valor >= MotorBusqueda.MATE_MINIMO) {
+            return valor - ply;
+        }
+        if (valor <= -MotorBusqueda.MATE_MINIMO) {
+            return valor + ply;
+        }
+        return valor;
+    }
+
+    public static int profundidad(long datos) {
+        return (int) (datos >>> 32) & 0xFF;
+    }
+
+    public static int tipo(long datos) {
+        return (int) (datos >>> 40) & 0x3;
+    }
+
+    private static int edad(long datos) {
+        return (int) (datos >>> 48) & 0xFF;
+    }
+
+    private static int aTabla(int puntuacion, int ply) {
+        if (puntuacion >= MotorBusqueda.MATE_MINIMO) {
+            return puntuacion + ply;
+        }
+        if (puntuacion <= -MotorBusqueda.MATE_MINIMO) {
+            return puntuacion - ply;
+        }
+        return puntuacion;
+    }
+}
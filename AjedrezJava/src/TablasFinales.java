@@ -0,0 +1,245 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Tablas de finales de 3 y 4 piezas (KQK, KRK, KPK, KBNK, KQKR...) generadas con GenerarTablas.
+// Cada tabla guarda, para todas las posiciones de un material, un byte con la distancia al mate
+// (DTM, en plies) desde el punto de vista del bando que mueve. Los archivos se proyectan en memoria:
+// consultar una posición es calcular su índice y leer un byte.
+//
+// Una tabla se nombra por su firma con el bando fuerte primero ("KQKR": rey y dama contra rey y
+// torre) y sirve también con los colores cambiados. Para ahorrar espacio, el rey del bando fuerte
+// se lleva a las columnas a-d (y sin peones, también a las filas 5-8) reflejando el tablero.
+// No tienen en cuenta la regla de los cincuenta movimientos ni, al generar KPKP, la captura al paso
+// después de un avance doble (esas posiciones no se consultan: las resuelve la búsqueda).
+public class TablasFinales {
+
+    public static final int MAX_PIEZAS = 4;
+
+    // Valor de una posición (un byte sin signo)
+    public static final int TABLAS = 0;                // Tablas (o todavía sin resolver durante la generación)
+    public static final int PIERDE = 128;              // 128 + n: el bando que mueve recibe mate en n plies
+    public static final int ILEGAL = 255;              // Casillas repetidas, rey en jaque del que no mueve...
+    public static final int NO_DISPONIBLE = -1;        // No hay tabla para ese material
+
+    static final String EXTENSION = ".tf";
+    private static final int MAGICO = 0x54464A31;      // "TFJ1"
+    static final int CABECERA = 16;                    // Mágico, cantidad de piezas y tamaño
+
+    private static final String LETRAS = "PNBRQK";
+
+    // Una tabla: la lista de piezas en el orden del índice (rey blanco, rey negro y las demás) y sus valores
+    static final class Tabla {
+        final String firma;
+        final int[] piezas;
+        final boolean conPeones;
+        final int tamano;
+        ByteBuffer valores; // Proyección del archivo, o un arreglo en memoria mientras se genera
+
+        Tabla(String firma) {
+            this.firma = firma;
+            int segundoRey = firma.indexOf('K', 1);
+            if (!firma.startsWith("K") || segundoRey < 0 || firma.length() > MAX_PIEZAS || firma.length() < 2) {
+                throw new IllegalArgumentException("Firma de tabla inválida: " + firma);
+            }
+            piezas = new int[firma.length()];
+            piezas[0] = Posicion.pieza(Posicion.BLANCO, Posicion.REY);
+            piezas[1] = Posicion.pieza(Posicion.NEGRO, Posicion.REY);
+            int n = 2;
+            boolean peones = false;
+            for (int i = 1; i < firma.length(); i++) {
+                if (i == segundoRey) {
+                    continue;
+                }
+                int tipo = LETRAS.indexOf(firma.charAt(i));
+                if (tipo < 0 || tipo == Posicion.REY) {
+                    throw new IllegalArgumentException("Firma de tabla inválida: " + firma);
+                }
+                piezas[n++] = Posicion.pieza(i < segundoRey ? Posicion.BLANCO : Posicion.NEGRO, tipo);
+                peones |= tipo == Posicion.PEON;
+            }
+            conPeones = peones;
+            // El rey blanco tiene 32 casillas posibles (16 sin peones); el resto, 64; y dos turnos
+            tamano = (conPeones ? 32 : 16) << (6 * (piezas.length - 1) + 1);
+        }
+
+        // Casilla real del rey blanco para cada valor de la primera cifra del índice
+        int casillaRey(int cifra) {
+            return Posicion.casilla(cifra >> 2, cifra & 3);
+        }
+
+        // Índice de la posición; invertir cambia los colores (la tabla está escrita para el otro bando)
+        int indice(Posicion pos, boolean invertir) {
+            int colorFuerte = invertir ? Posicion.NEGRO : Posicion.BLANCO;
+            int simetria = invertir ? 56 : 0; // Con los colores cambiados, el tablero se ve desde el otro lado
+            int rey = pos.casillaRey(colorFuerte) ^ simetria;
+            if (Posicion.columna(rey) > 3) {
+                simetria ^= 7;
+            }
+            if (!conPeones && Posicion.fila(rey) > 3) {
+                simetria ^= 56;
+            }
+            rey = pos.casillaRey(colorFuerte) ^ simetria;
+            int indice = Posicion.fila(rey) * 4 + Posicion.columna(rey);
+            indice = indice * 64 + (pos.casillaRey(colorFuerte ^ 1) ^ simetria);
+            long usadas = 0;
+            for (int i = 2; i < piezas.length; i++) {
+                int pieza = piezas[i];
+                int color = Posicion.colorDe(pieza) ^ (invertir ? 1 : 0);
+                long candidatas = pos.bitboard(color, Posicion.tipoDe(pieza)) & ~usadas;
+                int casilla = Long.numberOfTrailingZeros(candidatas); // Piezas iguales: en orden de casilla
+                usadas |= 1L << casilla;
+                indice = indice * 64 + (casilla ^ simetria);
+            }
+            int turno = pos.turno() ^ (invertir ? 1 : 0);
+            return indice * 2 + turno;
+        }
+
+        int valor(int indice) {
+            return valores.get(indice) & 0xFF;
+        }
+    }
+
+    // Búsqueda de la tabla por material: con a lo sumo dos piezas además de los reyes, el material
+    // cabe en un número (las dos piezas ordenadas), así que consultar no reserva memoria
+    private final Tabla[] porMaterial = new Tabla[13 * 13];
+    private final boolean[] invertida = new boolean[13 * 13];
+    private final List<Tabla> cargadas = new ArrayList<>();
+
+    private static final Map<String, TablasFinales> abiertas = new HashMap<>();
+
+    // Abre todas las tablas (*.tf) de un directorio. Un archivo con nombre que no es una firma de
+    // tabla, o con contenido inválido, se salta con un aviso en lugar de impedir abrir las demás.
+    public static TablasFinales abrir(String directorio) throws IOException {
+        TablasFinales tablas = new TablasFinales();
+        File[] archivos = new File(directorio).listFiles((d, nombre) -> nombre.endsWith(EXTENSION));
+        if (archivos == null) {
+            throw new IOException("No es un directorio: " + directorio);
+        }
+        for (File archivo : archivos) {
+            String firma = archivo.getName().substring(0, archivo.getName().length() - EXTENSION.length());
+            try {
+                tablas.agregar(leer(archivo, new Tabla(firma)));
+            } catch (IllegalArgumentException | IOException e) {
+                System.err.println("Se omite la tabla " + archivo + ": " + e.getMessage());
+            }
+        }
+        return tablas;
+    }
+
+    // Cada directorio se abre una sola vez por proceso aunque lo usen varios motores
+    public static synchronized TablasFinales compartidas(String directorio) throws IOException {
+        String clave = new File(directorio).getAbsoluteFile().toPath().normalize().toString();
+        TablasFinales tablas = abiertas.get(clave);
+        if (tablas == null) {
+            tablas = abrir(directorio);
+            abiertas.put(clave, tablas);
+        }
+        return tablas;
+    }
+
+    public int cantidad() {
+        return cargadas.size();
+    }
+
+    void agregar(Tabla tabla) {
+        cargadas.add(tabla);
+        int directa = clave(tabla.piezas, false);
+        int cambiada = clave(tabla.piezas, true);
+        porMaterial[directa] = tabla;
+        invertida[directa] = false;
+        if (porMaterial[cambiada] == null) { // En "KRKR" ambas son la misma
+            porMaterial[cambiada] = tabla;
+            invertida[cambiada] = true;
+        }
+    }
+
+    // Valor de la posición para el bando que mueve (TABLAS, 1..127 gana en n plies, PIERDE + n),
+    // o NO_DISPONIBLE si no hay tabla o la posición tiene enroques o una captura al paso posible
+    public int sondear(Posicion pos) {
+        if (Long.bitCount(pos.ocupacion()) > MAX_PIEZAS || pos.enroques() != 0) {
+            return NO_DISPONIBLE;
+        }
+        int alPaso = pos.casillaAlPaso();
+        if (alPaso != -1 && (Ataques.peon(pos.turno() ^ 1, alPaso) & pos.bitboard(pos.turno(), Posicion.PEON)) != 0) {
+            return NO_DISPONIBLE; // Las tablas no guardan el derecho a capturar al paso
+        }
+        long otras = pos.ocupacion() & ~pos.bitboard(Posicion.BLANCO, Posicion.REY) & ~pos.bitboard(Posicion.NEGRO, Posicion.REY);
+        int a = -1;
+        int b = -1;
+        while (otras != 0) {
+            int pieza = pos.piezaEn(Long.numberOfTrailingZeros(otras));
+            otras &= otras - 1;
+            if (a < 0) {
+                a = pieza;
+            } else {
+                b = pieza;
+            }
+        }
+        if (a < 0) {
+            return TABLAS; // Reyes solos
+        }
+        int clave = clave(Math.min(a, b < 0 ? a : b), b < 0 ? -1 : Math.max(a, b));
+        Tabla tabla = porMaterial[clave];
+        if (tabla == null) {
+            return NO_DISPONIBLE;
+        }
+        return tabla.valor(tabla.indice(pos, invertida[clave]));
+    }
+
+    // Puntuación del motor para un valor de la tabla, a ply plies de la raíz
+    public static int puntuacion(int valor, int ply) {
+        if (valor == TABLAS || valor == ILEGAL) {
+            return 0;
+        }
+        if (valor < PIERDE) {
+            return MotorBusqueda.MATE - ply - valor;
+        }
+        return -MotorBusqueda.MATE + ply + (valor - PIERDE);
+    }
+
+    private static int clave(int[] piezas, boolean invertir) {
+        int a = piezas.length > 2 ? (invertir ? cambiarColor(piezas[2]) : piezas[2]) : -1;
+        int b = piezas.length > 3 ? (invertir ? cambiarColor(piezas[3]) : piezas[3]) : -1;
+        return b < 0 ? clave(a, -1) : clave(Math.min(a, b), Math.max(a, b));
+    }
+
+    private static int clave(int a, int b) {
+        return (a + 1) * 13 + (b + 1);
+    }
+
+    private static int cambiarColor(int pieza) {
+        return Posicion.pieza(Posicion.colorDe(pieza) ^ 1, Posicion.tipoDe(pieza));
+    }
+
+    static Tabla leer(File archivo, Tabla tabla) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r"); FileChannel canal = raf.getChannel()) {
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            if (canal.read(cabecera, 0) < CABECERA) {
+                throw new IOException("Tabla incompleta: " + archivo);
+            }
+            cabecera.flip();
+            if (cabecera.getInt() != MAGICO || cabecera.getInt() != tabla.piezas.length || cabecera.getLong() != tabla.tamano) {
+                throw new IOException("Tabla inválida o de otra versión: " + archivo);
+            }
+            tabla.valores = canal.map(FileChannel.MapMode.READ_ONLY, CABECERA, tabla.tamano);
+        }
+        return tabla;
+    }
+
+    static void escribir(File archivo, Tabla tabla, byte[] valores) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "rw"); FileChannel canal = raf.getChannel()) {
+            raf.setLength(0);
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            cabecera.putInt(MAGICO).putInt(tabla.piezas.length).putLong(tabla.tamano).flip();
+            canal.write(cabecera, 0);
+            canal.write(ByteBuffer.wrap(valores), CABECERA);
+        }
+    }
+}
@@ -1,32 +1,33 @@
 import javax.swing.*;
-import javax.swing.border.LineBorder;
 import java.awt.*;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
 
+// Vista de una Partida: el estado del juego (turno, enroques, resultado) vive en la partida;
+// aquí solo se traducen clics a movimientos y se muestran los mensajes
 public class TableroAjedrez extends JFrame {
 
-    private JLabel[][] celdas = new JLabel[8][8];
-    private String[][] piezas = new String[8][8];
+    private final Partida partida;
+    private final Posicion posicion; // Solo para leer
+    private PanelTablero panelTablero;
 
     private int filaOrigen = -1;
     private int colOrigen = -1;
-    private JLabel celdaSeleccionada = null;
 
-    private String turnoActual = "blanco";
     private boolean contraBot = false;
-
-    // Variables para controlar el enroque
-    private boolean reyBlancoMovido = false;
-    private boolean reyNegroMovido = false;
-    private boolean torreBlancaIzquierdaMovida = false;
-    private boolean torreBlancaDerechaMovida = false;
-    private boolean torreNegraIzquierdaMovida = false;
-    private boolean torreNegraDerechaMovida = false;
-
+    private PensadorBot pensador;      // Busca en segundo plano; los resultados llegan por el hilo de Swing
+    private JLabel etiquetaPensando;
 
     public TableroAjedrez(boolean contraBot) {
+        this(contraBot, new Partida());
+    }
+
+    // Juega desde la posición de la partida dada (p. ej. Partida.desdeFen)
+    public TableroAjedrez(boolean contraBot, Partida partida) {
+        this.partida = partida;
+        this.posicion = partida.posicion();
         this.contraBot = contraBot;
+        if (contraBot) {
+            pensador = new PensadorBot(ConfiguracionMotor.desdePropiedades(), SwingUtilities::invokeLater);
+        }
 
         setTitle("Tablero de Ajedrez");
         setSize(600, 600);
@@ -40,13 +41,17 @@ public class TableroAjedrez extends JFrame {
 
         btnTablas.addActionListener(e -> {
             int resp = JOptionPane.showConfirmDialog(this, "¿Te quieres rendir?", "Rendirse", JOptionPane.YES_NO_OPTION);
-            if (resp == JOptionPane.YES_OPTION) {
-                JOptionPane.showMessageDialog(this, "¡Te rendiste!");
-                System.exit(0);
+            if (resp == JOptionPane.YES_OPTION && !partida.terminada()) {
+                terminarBot();
+                deseleccionar();
+                // Contra el bot se rinde el humano (blancas); en 1 vs 1, el bando al que le toca
+                partida.rendirse(contraBot ? Posicion.BLANCO : posicion.turno());
+                JOptionPane.showMessageDialog(this, "¡Te rendiste! Resultado: " + Partida.NOMBRE_RESULTADO[partida.resultado()]);
             }
         });
 
         btnMenu.addActionListener(e -> {
+            terminarBot();
             dispose();
             new MenuJuego().setVisible(true);
         });
@@ -54,422 +59,179 @@ public class TableroAjedrez extends JFrame {
         controlPanel.add(btnTablas);
         controlPanel.add(btnMenu);
 
-        add(controlPanel, BorderLayout.NORTH);
-
-        JPanel panelTablero = new JPanel(new GridLayout(8, 8));
+        etiquetaPensando = new JLabel("El bot está pensando…");
+        etiquetaPensando.setVisible(false);
+        controlPanel.add(etiquetaPensando);
 
-        for (int fila = 0; fila < 8; fila++) {
-            for (int col = 0; col < 8; col++) {
-                JLabel celda = new JLabel();
-                celda.setOpaque(true);
-                celda.setHorizontalAlignment(SwingConstants.CENTER);
-                celda.setVerticalAlignment(SwingConstants.CENTER);
-
-                if ((fila + col) % 2 == 0) {
-                    celda.setBackground(new Color(240, 217, 181));
-                } else {
-                    celda.setBackground(new Color(181, 136, 99));
-                }
-
-                final int f = fila;
-                final int c = col;
-                celda.addMouseListener(new MouseAdapter() {
-                    public void mouseClicked(MouseEvent e) {
-                        manejarClick(f, c);
-                    }
-                });
+        add(controlPanel, BorderLayout.NORTH);
 
-                celdas[fila][col] = celda;
-                panelTablero.add(celda);
-            }
-        }
+        panelTablero = new PanelTablero(posicion, casilla -> manejarClick(Posicion.fila(casilla), Posicion.columna(casilla)));
         add(panelTablero, BorderLayout.CENTER);
-        inicializarPiezas();
-}
-    private void inicializarPiezas() {
-        for (int col = 0; col < 8; col++) {
-            colocar("resources/peon_blanco.png", 6, col);
-            colocar("resources/peon_negro.png", 1, col);
-        }
-        colocar("resources/torre_blanco.png", 7, 0);
-        colocar("resources/torre_blanco.png", 7, 7);
-        colocar("resources/torre_negro.png", 0, 0);
-        colocar("resources/torre_negro.png", 0, 7);
-
-        colocar("resources/caballo_blanco.png", 7, 1);
-        colocar("resources/caballo_blanco.png", 7, 6);
-        colocar("resources/caballo_negro.png", 0, 1);
-        colocar("resources/caballo_negro.png", 0, 6);
-
-        colocar("resources/alfil_blanco.png", 7, 2);
-        colocar("resources/alfil_blanco.png", 7, 5);
-        colocar("resources/alfil_negro.png", 0, 2);
-        colocar("resources/alfil_negro.png", 0, 5);
-
-        colocar("resources/reina_blanco.png", 7, 3);
-        colocar("resources/reina_negro.png", 0, 3);
-
-        colocar("resources/rey_blanco.png", 7, 4);
-        colocar("resources/rey_negro.png", 0, 4);
-    }
 
-    private void colocar(String nombreImagen, int fila, int columna) {
-        piezas[fila][columna] = nombreImagen;
-        ImageIcon icono = new ImageIcon(nombreImagen);
-        Image imagen = icono.getImage().getScaledInstance(60, 60, Image.SCALE_SMOOTH);
-        celdas[fila][columna].setIcon(new ImageIcon(imagen));
+        // Una posición cargada puede estar terminada o tocarle al bot (que juega con negras)
+        if (partida.terminada()) {
+            SwingUtilities.invokeLater(this::anunciarFinal);
+        } else if (contraBot && posicion.turno() == Posicion.NEGRO) {
+            SwingUtilities.invokeLater(this::realizarMovimientoBot);
+        }
     }
 
-    private void limpiar(int fila, int columna) {
-        piezas[fila][columna] = null;
-        celdas[fila][columna].setIcon(null);
+    private String turnoActual() {
+        return Posicion.NOMBRE_COLOR[posicion.turno()];
     }
 
     private void manejarClick(int fila, int columna) {
-        if (contraBot && turnoActual.equals("negro")) return; // Bloquear input humano si juega el bot
+        if (partida.terminada()) return;
+        if (contraBot && posicion.turno() == Posicion.NEGRO) return; // Bloquear input humano si juega el bot
 
-        String piezaClic = piezas[fila][columna];
+        int piezaClic = posicion.piezaEn(fila, columna);
 
         if (filaOrigen == -1) {
-            if (piezaClic == null) {
+            if (piezaClic == Posicion.VACIA) {
                 JOptionPane.showMessageDialog(this, "No hay pieza en esta casilla. Selecciona una pieza para mover.");
                 return;
             }
-            String colorPieza = obtenerColor(piezaClic);
-            if (!colorPieza.equals(turnoActual)) {
+            if (Posicion.colorDe(piezaClic) != posicion.turno()) {
                 JOptionPane.showMessageDialog(this, "No es tu turno.");
                 return;
             }
 
-            filaOrigen = fila;
-            colOrigen = columna;
-            if (celdaSeleccionada != null) {
-                celdaSeleccionada.setBorder(null);
-            }
-            celdaSeleccionada = celdas[fila][columna];
-            celdaSeleccionada.setBorder(new LineBorder(Color.BLUE, 3));
+            seleccionar(fila, columna);
         } else {
             if (fila == filaOrigen && columna == colOrigen) {
-                if (celdaSeleccionada != null) {
-                    celdaSeleccionada.setBorder(null);
-                    celdaSeleccionada = null;
-                }
-                filaOrigen = -1;
-                colOrigen = -1;
+                deseleccionar();
                 return;
             }
 
-            if (piezaClic != null) {
-                String colorPiezaClic = obtenerColor(piezaClic);
-                if (colorPiezaClic.equals(turnoActual)) {
-                    if (celdaSeleccionada != null) {
-                        celdaSeleccionada.setBorder(null);
-                    }
-                    filaOrigen = fila;
-                    colOrigen = columna;
-                    celdaSeleccionada = celdas[fila][columna];
-                    celdaSeleccionada.setBorder(new LineBorder(Color.BLUE, 3));
-                    return;
-                }
-            }
-
-            String piezaSeleccionada = piezas[filaOrigen][colOrigen];
-
-            // Verificar si es un movimiento de enroque
-            if (esMovimientoEnroque(filaOrigen, colOrigen, fila, columna)) {
-                boolean esEnroqueCorto = (columna == 6); // columna 6 es enroque corto, columna 2 es enroque largo
-
-                if (puedeHacerEnroque(turnoActual, esEnroqueCorto)) {
-                    realizarEnroque(turnoActual, esEnroqueCorto);
-
-                    if (celdaSeleccionada != null) {
-                        celdaSeleccionada.setBorder(null);
-                        celdaSeleccionada = null;
-                    }
-                    filaOrigen = -1;
-                    colOrigen = -1;
-
-                    turnoActual = turnoActual.equals("blanco") ? "negro" : "blanco";
-
-                    // Verificar jaque después del enroque
-                    if (estaEnJaque(piezas, turnoActual)) {
-                        if (esJaqueMate(turnoActual)) {
-                            JOptionPane.showMessageDialog(this, "¡Jaque mate! Ganó el jugador " + (turnoActual.equals("blanco") ? "negro" : "blanco"));
-                            System.exit(0);
-                        } else {
-                            JOptionPane.showMessageDialog(this, "¡Jaque al jugador " + turnoActual + "!");
-                        }
-                    }
-
-                    // Lógica del bot sencillo
-                    if (contraBot && turnoActual.equals("negro")) {
-                        realizarMovimientoBot();
-                    }
-                    return;
-                } else {
-                    JOptionPane.showMessageDialog(this, "No se puede realizar el enroque en este momento.");
+            if (piezaClic != Posicion.VACIA) {
+                if (Posicion.colorDe(piezaClic) == posicion.turno()) {
+                    seleccionar(fila, columna);
                     return;
                 }
             }
 
-            if (ValidadorMovimiento.esMovimientoValido(piezas, piezaSeleccionada, filaOrigen, colOrigen, fila, columna)) {
-                String[][] copia = copiarMatriz(piezas);
-                copia[fila][columna] = piezaSeleccionada;
-                copia[filaOrigen][colOrigen] = null;
+            int piezaSeleccionada = posicion.piezaEn(filaOrigen, colOrigen);
+            int desde = Posicion.casilla(filaOrigen, colOrigen);
+            int hasta = Posicion.casilla(fila, columna);
+            int movimiento = partida.legales().buscar(desde, hasta);
 
-                if (piezaSeleccionada.contains("rey") && estaEnJaque(copia, turnoActual)) {
+            if (movimiento == Movimiento.NINGUNO) {
+                if (esMovimientoEnroque(filaOrigen, colOrigen, fila, columna)) {
+                    JOptionPane.showMessageDialog(this, "No se puede realizar el enroque en este momento.");
+                } else if (Posicion.tipoDe(piezaSeleccionada) == Posicion.REY
+                        && ValidadorMovimiento.esMovimientoValido(posicion, filaOrigen, colOrigen, fila, columna)) {
                     JOptionPane.showMessageDialog(this, "El rey no puede moverse a una casilla en jaque.");
-                    return;
-                }
-
-                // Actualizar el estado de las piezas movidas antes de realizar el movimiento
-                actualizarEstadoPiezasMovidas(filaOrigen, colOrigen, piezaSeleccionada);
-
-                colocar(piezaSeleccionada, fila, columna);
-                limpiar(filaOrigen, colOrigen);
-
-                // Verificar si el peón debe ser coronado
-                if (debeCoronarPeon(piezaSeleccionada, fila)) {
-                    String colorPieza = obtenerColor(piezaSeleccionada);
-                    coronarPeon(fila, columna, colorPieza);
-                }
-
-                if (celdaSeleccionada != null) {
-                    celdaSeleccionada.setBorder(null);
-                    celdaSeleccionada = null;
-                }
-                filaOrigen = -1;
-                colOrigen = -1;
-
-                turnoActual = turnoActual.equals("blanco") ? "negro" : "blanco";
-
-                if (estaEnJaque(piezas, turnoActual)) {
-                    if (esJaqueMate(turnoActual)) {
-                        JOptionPane.showMessageDialog(this, "¡Jaque mate! Ganó el jugador " + (turnoActual.equals("blanco") ? "negro" : "blanco"));
-                        System.exit(0);
-                    } else {
-                        JOptionPane.showMessageDialog(this, "¡Jaque al jugador " + turnoActual + "!");
-                    }
-                }
-
-                // Lógica del bot sencillo
-                if (contraBot && turnoActual.equals("negro")) {
-                    realizarMovimientoBot();
-                }
-            } else {
-                JOptionPane.showMessageDialog(this, "Movimiento inválido, intenta de nuevo.");
-            }
-        }
-    }
-
-    private void realizarMovimientoBot() {
-        int[] mov = BotFacil.obtenerMovimiento(piezas);
-        if (mov != null) {
-            String pieza = piezas[mov[0]][mov[1]];
-
-            // Verificar si el bot quiere hacer enroque
-            if (esMovimientoEnroque(mov[0], mov[1], mov[2], mov[3])) {
-                boolean esEnroqueCorto = (mov[3] == 6);
-                if (puedeHacerEnroque("negro", esEnroqueCorto)) {
-                    realizarEnroque("negro", esEnroqueCorto);
                 } else {
-                    // Si no puede hacer enroque, hacer movimiento normal
-                    actualizarEstadoPiezasMovidas(mov[0], mov[1], pieza);
-                    colocar(pieza, mov[2], mov[3]);
-                    limpiar(mov[0], mov[1]);
-                }
-            } else {
-                // Movimiento normal del bot
-                actualizarEstadoPiezasMovidas(mov[0], mov[1], pieza);
-                colocar(pieza, mov[2], mov[3]);
-                limpiar(mov[0], mov[1]);
-
-                // Verificar si el peón del bot debe ser coronado
-                if (debeCoronarPeon(pieza, mov[2])) {
-                    String colorPieza = obtenerColor(pieza);
-                    coronarPeonBot(mov[2], mov[3], colorPieza);
+                    JOptionPane.showMessageDialog(this, "Movimiento inválido, intenta de nuevo.");
                 }
+                return;
             }
 
-            turnoActual = "blanco";
-
-            if (estaEnJaque(piezas, turnoActual)) {
-                if (esJaqueMate(turnoActual)) {
-                    JOptionPane.showMessageDialog(this, "¡Jaque mate! Ganó el bot.");
-                    System.exit(0);
-                } else {
-                    JOptionPane.showMessageDialog(this, "¡Jaque al jugador blanco!");
-                }
+            // Verificar si el peón debe ser coronado
+            boolean corona = Movimiento.especial(movimiento) == Movimiento.CORONACION;
+            if (corona) {
+                movimiento = Movimiento.coronacion(desde, hasta, coronarPeon());
             }
-        }
-    }
 
-    private String obtenerColor(String nombre) {
-        return nombre.contains("blanco") ? "blanco" : "negro";
-    }
+            // Aplicar el movimiento (también actualiza los derechos de enroque y el resultado)
+            deseleccionar();
+            partida.jugar(movimiento);
+            panelTablero.movimientoHecho(movimiento, true);
 
-    private boolean estaEnJaque(String[][] tablero, String colorDelRey) {
-        int filaRey = -1, colRey = -1;
-        for (int fila = 0; fila < 8; fila++) {
-            for (int col = 0; col < 8; col++) {
-                String pieza = tablero[fila][col];
-                if (pieza != null && pieza.contains("rey") && pieza.contains(colorDelRey)) {
-                    filaRey = fila;
-                    colRey = col;
-                }
+            if (corona) {
+                JOptionPane.showMessageDialog(this,
+                        "¡Peón coronado como " + Posicion.NOMBRE_TIPO[Movimiento.piezaCoronacion(movimiento)] + "!",
+                        "Coronación exitosa",
+                        JOptionPane.INFORMATION_MESSAGE);
             }
-        }
-
-        if (filaRey == -1 || colRey == -1) return true;
 
-        String colorEnemigo = colorDelRey.equals("blanco") ? "negro" : "blanco";
-        for (int fila = 0; fila < 8; fila++) {
-            for (int col = 0; col < 8; col++) {
-                String pieza = tablero[fila][col];
-                if (pieza != null && pieza.contains(colorEnemigo)) {
-                    if (ValidadorMovimiento.esMovimientoValido(tablero, pieza, fila, col, filaRey, colRey)) {
-                        return true;
-                    }
-                }
+            if (partida.terminada()) {
+                anunciarFinal();
+                return;
+            }
+            if (partida.legales().enJaque()) {
+                JOptionPane.showMessageDialog(this, "¡Jaque al jugador " + turnoActual() + "!");
             }
-        }
-
-        return false;
-    }
 
-    private boolean esJaqueMate(String color) {
-        if (!estaEnJaque(piezas, color)) return false;
-
-        for (int filaInicio = 0; filaInicio < 8; filaInicio++) {
-            for (int colInicio = 0; colInicio < 8; colInicio++) {
-                String pieza = piezas[filaInicio][colInicio];
-                if (pieza != null && pieza.contains(color)) {
-                    for (int filaFin = 0; filaFin < 8; filaFin++) {
-                        for (int colFin = 0; colFin < 8; colFin++) {
-                            if (ValidadorMovimiento.esMovimientoValido(piezas, pieza, filaInicio, colInicio, filaFin, colFin)) {
-                                String[][] copia = copiarMatriz(piezas);
-                                copia[filaFin][colFin] = pieza;
-                                copia[filaInicio][colInicio] = null;
-                                if (!estaEnJaque(copia, color)) {
-                                    return false;
-                                }
-                            }
-                        }
-                    }
-                }
+            // Lógica del bot sencillo
+            if (contraBot && posicion.turno() == Posicion.NEGRO) {
+                realizarMovimientoBot();
             }
         }
-
-        return true;
     }
 
-    private String[][] copiarMatriz(String[][] original) {
-        String[][] copia = new String[8][8];
-        for (int i = 0; i < 8; i++) {
-            System.arraycopy(original[i], 0, copia[i], 0, 8);
-        }
-        return copia;
+    // Selecciona la pieza de la casilla y marca en el tablero sus destinos legales
+    private void seleccionar(int fila, int columna) {
+        filaOrigen = fila;
+        colOrigen = columna;
+        int desde = Posicion.casilla(fila, columna);
+        panelTablero.seleccionar(desde, partida.legales().destinos(desde));
     }
 
-    // Función para validar si el enroque es posible
-    private boolean puedeHacerEnroque(String color, boolean esEnroqueCorto) {
-        int fila = color.equals("blanco") ? 7 : 0;
-        int colRey = 4;
-        int colTorre = esEnroqueCorto ? 7 : 0;
-
-        // Verificar que el rey y la torre no se hayan movido
-        if (color.equals("blanco")) {
-            if (reyBlancoMovido) return false;
-            if (esEnroqueCorto && torreBlancaDerechaMovida) return false;
-            if (!esEnroqueCorto && torreBlancaIzquierdaMovida) return false;
-        } else {
-            if (reyNegroMovido) return false;
-            if (esEnroqueCorto && torreNegraDerechaMovida) return false;
-            if (!esEnroqueCorto && torreNegraIzquierdaMovida) return false;
-        }
-
-        // Verificar que las piezas estén en sus posiciones iniciales
-        String rey = piezas[fila][colRey];
-        String torre = piezas[fila][colTorre];
-
-        if (rey == null || !rey.contains("rey") || !rey.contains(color)) return false;
-        if (torre == null || !torre.contains("torre") || !torre.contains(color)) return false;
+    private void deseleccionar() {
+        filaOrigen = -1;
+        colOrigen = -1;
+        panelTablero.limpiarSeleccion();
+    }
 
-        // Verificar que no haya piezas entre el rey y la torre
-        int inicio = Math.min(colRey, colTorre) + 1;
-        int fin = Math.max(colRey, colTorre);
+    // El bot piensa en segundo plano: la ventana sigue respondiendo y el resultado llega a aplicarMovimientoBot
+    private void realizarMovimientoBot() {
+        etiquetaPensando.setVisible(true);
+        pensador.pensar(posicion, this::aplicarMovimientoBot);
+    }
 
-        for (int col = inicio; col < fin; col++) {
-            if (piezas[fila][col] != null) {
-                return false;
+    // Se ejecuta en el hilo de Swing cuando el bot terminó de pensar
+    private void aplicarMovimientoBot(int movimiento) {
+        etiquetaPensando.setVisible(false);
+        if (partida.jugar(movimiento)) {
+            // El bot siempre corona con reina (la pieza más poderosa)
+            panelTablero.movimientoHecho(movimiento, true);
+            pensador.ponderar(posicion); // Mientras el humano piensa, el bot adelanta trabajo
+
+            if (Movimiento.especial(movimiento) == Movimiento.CORONACION) {
+                // Mostrar mensaje informativo
+                JOptionPane.showMessageDialog(this,
+                        "El bot ha coronado su peón como reina.",
+                        "Coronación del bot",
+                        JOptionPane.INFORMATION_MESSAGE);
             }
-        }
 
-        // Verificar que el rey no esté en jaque
-        if (estaEnJaque(piezas, color)) {
-            return false;
-        }
-
-        // Verificar que el rey no pase por casillas atacadas
-        int direccion = esEnroqueCorto ? 1 : -1;
-        for (int i = 1; i <= 2; i++) {
-            int colIntermedia = colRey + (i * direccion);
-
-            // Crear tablero temporal para simular el movimiento
-            String[][] tableroTemporal = copiarMatriz(piezas);
-            tableroTemporal[fila][colIntermedia] = rey;
-            tableroTemporal[fila][colRey] = null;
-
-            if (estaEnJaque(tableroTemporal, color)) {
-                return false;
+            if (partida.terminada()) {
+                anunciarFinal();
+            } else if (partida.legales().enJaque()) {
+                JOptionPane.showMessageDialog(this, "¡Jaque al jugador blanco!");
             }
         }
-
-        return true;
     }
 
-    // Función para realizar el enroque
-    private void realizarEnroque(String color, boolean esEnroqueCorto) {
-        int fila = color.equals("blanco") ? 7 : 0;
-        int colRey = 4;
-        int colTorre = esEnroqueCorto ? 7 : 0;
-        int nuevaColRey = esEnroqueCorto ? 6 : 2;
-        int nuevaColTorre = esEnroqueCorto ? 5 : 3;
-
-        String rey = piezas[fila][colRey];
-        String torre = piezas[fila][colTorre];
-
-        // Mover el rey
-        colocar(rey, fila, nuevaColRey);
-        limpiar(fila, colRey);
-
-        // Mover la torre
-        colocar(torre, fila, nuevaColTorre);
-        limpiar(fila, colTorre);
-
-        // Marcar que las piezas se movieron
-        if (color.equals("blanco")) {
-            reyBlancoMovido = true;
-            if (esEnroqueCorto) {
-                torreBlancaDerechaMovida = true;
-            } else {
-                torreBlancaIzquierdaMovida = true;
-            }
+    // La partida terminó: se muestra el resultado y el tablero queda como está (sin cerrar el programa)
+    private void anunciarFinal() {
+        terminarBot();
+        String mensaje;
+        if (partida.motivo() == Partida.JAQUE_MATE) {
+            boolean ganoBot = contraBot && partida.resultado() == Partida.GANAN_NEGRAS;
+            mensaje = ganoBot ? "¡Jaque mate! Ganó el bot."
+                    : "¡Jaque mate! Ganó el jugador " + Posicion.NOMBRE_COLOR[posicion.turno() ^ 1];
         } else {
-            reyNegroMovido = true;
-            if (esEnroqueCorto) {
-                torreNegraDerechaMovida = true;
-            } else {
-                torreNegraIzquierdaMovida = true;
-            }
+            mensaje = "¡Tablas por " + Partida.NOMBRE_MOTIVO[partida.motivo()] + "!";
+        }
+        JOptionPane.showMessageDialog(this, mensaje + " (" + Partida.NOMBRE_RESULTADO[partida.resultado()] + ")");
+    }
+
+    // Detiene la búsqueda en curso (o la ponderación) y libera el motor
+    private void terminarBot() {
+        if (pensador != null) {
+            pensador.cerrar();
+            pensador = null;
+            etiquetaPensando.setVisible(false);
         }
     }
 
     // Función para detectar si un movimiento es un enroque
     private boolean esMovimientoEnroque(int filaOrigen, int colOrigen, int filaDestino, int colDestino) {
         // Solo el rey puede iniciar un enroque
-        String pieza = piezas[filaOrigen][colOrigen];
-        if (pieza == null || !pieza.contains("rey")) {
+        int pieza = posicion.piezaEn(filaOrigen, colOrigen);
+        if (pieza == Posicion.VACIA || Posicion.tipoDe(pieza) != Posicion.REY) {
             return false;
         }
 
@@ -491,54 +253,11 @@ public class TableroAjedrez extends JFrame {
         return false;
     }
 
-    // Función para actualizar el estado de las piezas movidas
-    private void actualizarEstadoPiezasMovidas(int fila, int columna, String pieza) {
-        if (pieza.contains("rey")) {
-            if (pieza.contains("blanco")) {
-                reyBlancoMovido = true;
-            } else {
-                reyNegroMovido = true;
-            }
-        } else if (pieza.contains("torre")) {
-            if (pieza.contains("blanco")) {
-                if (fila == 7 && columna == 0) {
-                    torreBlancaIzquierdaMovida = true;
-                } else if (fila == 7 && columna == 7) {
-                    torreBlancaDerechaMovida = true;
-                }
-            } else {
-                if (fila == 0 && columna == 0) {
-                    torreNegraIzquierdaMovida = true;
-                } else if (fila == 0 && columna == 7) {
-                    torreNegraDerechaMovida = true;
-                }
-            }
-        }
-    }
-
-    // Función para verificar si un peón debe ser coronado
-    private boolean debeCoronarPeon(String pieza, int filaDestino) {
-        if (pieza == null || !pieza.contains("peon")) {
-            return false;
-        }
-
-        // Peón blanco llega a la fila 0 (primera fila)
-        if (pieza.contains("blanco") && filaDestino == 0) {
-            return true;
-        }
-
-        // Peón negro llega a la fila 7 (última fila)
-        if (pieza.contains("negro") && filaDestino == 7) {
-            return true;
-        }
-
-        return false;
-    }
-
-    // Función para coronar un peón (jugador humano)
-    private void coronarPeon(int fila, int columna, String color) {
+    // Función para coronar un peón (jugador humano): devuelve el tipo de pieza elegido
+    private int coronarPeon() {
         // Opciones de coronación
         String[] opciones = {"Reina", "Torre", "Alfil", "Caballo"};
+        int[] tipos = {Posicion.REINA, Posicion.TORRE, Posicion.ALFIL, Posicion.CABALLO};
 
         // Crear panel personalizado para mostrar las opciones
         JPanel panel = new JPanel();
@@ -562,48 +281,7 @@ public class TableroAjedrez extends JFrame {
             seleccion = 0;
         }
 
-        // Determinar la nueva pieza basada en la selección
-        String nuevaPieza;
-        switch (seleccion) {
-            case 0: // Reina
-                nuevaPieza = color.equals("blanco") ? "resources/reina_blanco.png" : "resources/reina_negro.png";
-                break;
-            case 1: // Torre
-                nuevaPieza = color.equals("blanco") ? "resources/torre_blanco.png" : "resources/torre_negro.png";
-                break;
-            case 2: // Alfil
-                nuevaPieza = color.equals("blanco") ? "resources/alfil_blanco.png" : "resources/alfil_negro.png";
-                break;
-            case 3: // Caballo
-                nuevaPieza = color.equals("blanco") ? "resources/caballo_blanco.png" : "resources/caballo_negro.png";
-                break;
-            default:
-                nuevaPieza = color.equals("blanco") ? "resources/reina_blanco.png" : "resources/reina_negro.png";
-                break;
-        }
-
-        // Colocar la nueva pieza
-        colocar(nuevaPieza, fila, columna);
-
-        // Mostrar mensaje de confirmación
-        String nombrePieza = opciones[seleccion].toLowerCase();
-        JOptionPane.showMessageDialog(this,
-                "¡Peón coronado como " + nombrePieza + "!",
-                "Coronación exitosa",
-                JOptionPane.INFORMATION_MESSAGE);
-    }
-
-    // Función para coronar un peón automáticamente (para el bot)
-    private void coronarPeonBot(int fila, int columna, String color) {
-        // El bot siempre elige reina (la pieza más poderosa)
-        String nuevaPieza = color.equals("blanco") ? "resources/reina_blanco.png" : "resources/reina_negro.png";
-        colocar(nuevaPieza, fila, columna);
-
-        // Mostrar mensaje informativo
-        JOptionPane.showMessageDialog(this,
-                "El bot ha coronado su peón como reina.",
-                "Coronación del bot",
-                JOptionPane.INFORMATION_MESSAGE);
+        return tipos[seleccion];
     }
 
     public static void main(String[] args) {
@@ -1,125 +1,69 @@
-public class ValidadorMovimiento {
-
-    public static boolean esMovimientoValido(String[][] piezas, String pieza,
-                                             int filaInicio, int colInicio, int filaFin, int colFin) {
-
-        if (pieza == null) {
-            return false;
-        }
-
-        String tipo = obtenerTipoPieza(pieza);
-        String color = obtenerColor(pieza);
-
-        int df = filaFin - filaInicio;
-        int dc = colFin - colInicio;
-
-        String destino = piezas[filaFin][colFin];
-        boolean destinoEsAliado = false;
-        if (destino != null) {
-            String colorDestino = obtenerColor(destino);
-            if (colorDestino.equals(color)) {
-                destinoEsAliado = true; // No puede capturar piezas propias
-            }
-        }
-        if (destinoEsAliado) {
-            return false;
-        }
-
-        switch (tipo) {
-            case "peon":
-                return validarPeon(piezas, color, df, dc, filaInicio, filaFin, colFin);
-            case "torre":
-                if (df == 0 || dc == 0) {
-                    return caminoLibre(piezas, filaInicio, colInicio, filaFin, colFin);
-                }
-                break;
-            case "alfil":
-                if (Math.abs(df) == Math.abs(dc)) {
-                    return caminoLibre(piezas, filaInicio, colInicio, filaFin, colFin);
-                }
-                break;
-            case "reina":
-                if (df == 0 || dc == 0 || Math.abs(df) == Math.abs(dc)) {
-                    return caminoLibre(piezas, filaInicio, colInicio, filaFin, colFin);
-                }
-                break;
-            case "caballo":
-                // Movimiento en L: 2 y 1 o 1 y 2
-                if ((Math.abs(df) == 2 && Math.abs(dc) == 1) || (Math.abs(df) == 1 && Math.abs(dc) == 2)) {
-                    return true; // Puede saltar piezas, no revisa camino
-                }
-                break;
-            case "rey":
-                // Una casilla en cualquier dirección
-                if (Math.abs(df) <= 1 && Math.abs(dc) <= 1) {
-                    return true;
-                }
-                // Permitir movimiento de enroque (2 casillas horizontalmente)
-                if (df == 0 && Math.abs(dc) == 2) {
-                    // La validación específica del enroque se hace en TableroAjedrez
-                    return true;
-                }
-                break;
-            default:
-                return false;
-        }
-
-        return false;
-    }
-
-    // Verifica que el camino esté libre para piezas que recorren varias casillas
-    private static boolean caminoLibre(String[][] piezas, int filaInicio, int colInicio, int filaFin, int colFin) {
-        int df = Integer.compare(filaFin, filaInicio); // Dirección fila: -1, 0, 1
-        int dc = Integer.compare(colFin, colInicio);   // Dirección columna: -1, 0, 1
-
-        int fila = filaInicio + df;
-        int col = colInicio + dc;
-
-        while (fila != filaFin || col != colFin) {
-            if (piezas[fila][col] != null) {
-                return false; // Hay pieza bloqueando el camino
-            }
-            fila += df;
-            col += dc;
-        }
-        return true;
-    }
-
-    private static String obtenerTipoPieza(String nombre) {
-        nombre = nombre.toLowerCase();
-        if (nombre.contains("peon")) return "peon";
-        if (nombre.contains("torre")) return "torre";
-        if (nombre.contains("alfil")) return "alfil";
-        if (nombre.contains("reina")) return "reina";
-        if (nombre.contains("rey")) return "rey";
-        if (nombre.contains("caballo")) return "caballo";
-        return "";
-    }
-
-    private static String obtenerColor(String nombre) {
-        if (nombre.toLowerCase().contains("blanco")) {
-            return "blanco";
-        } else {
-            return "negro";
-        }
-    }
-
-    // Validación específica para peón, considerando movimiento normal y captura
-    private static boolean validarPeon(String[][] piezas, String color, int df, int dc, int filaInicio, int filaFin, int colFin) {
-        String destino = piezas[filaFin][colFin];
-
-        if (color.equals("blanco")) {
-            // Movimiento hacia arriba (fila disminuye)
-            if (dc == 0 && df == -1 && destino == null) return true; // Mover 1 casilla
-            if (dc == 0 && df == -2 && filaInicio == 6 && destino == null && piezas[5][colFin] == null) return true; // Mover 2 casillas inicial
-            if (Math.abs(dc) == 1 && df == -1 && destino != null && obtenerColor(destino).equals("negro")) return true; // Captura diagonal
-        } else {
-            // Movimiento hacia abajo (fila aumenta)
-            if (dc == 0 && df == 1 && destino == null) return true;
-            if (dc == 0 && df == 2 && filaInicio == 1 && destino == null && piezas[2][colFin] == null) return true;
-            if (Math.abs(dc) == 1 && df == 1 && destino != null && obtenerColor(destino).equals("blanco")) return true;
-        }
-
-        return false;
-    }
-}
+public class ValidadorMovimiento {
+
+    public static boolean esMovimientoValido(Posicion pos, int filaInicio, int colInicio, int filaFin, int colFin) {
+        int desde = Posicion.casilla(filaInicio, colInicio);
+        int hasta = Posicion.casilla(filaFin, colFin);
+
+        int pieza = pos.piezaEn(desde);
+        if (pieza == Posicion.VACIA) {
+            return false;
+        }
+
+        if ((destinos(pos, desde) & Posicion.bit(hasta)) != 0) {
+            return true;
+        }
+
+        // Permitir movimiento de enroque (2 casillas horizontalmente)
+        // La validación específica del enroque se hace en TableroAjedrez
+        return Posicion.tipoDe(pieza) == Posicion.REY && filaInicio == filaFin && Math.abs(colFin - colInicio) == 2
+                && (pos.ocupacion(Posicion.colorDe(pieza)) & Posicion.bit(hasta)) == 0;
+    }
+
+    // Todas las casillas a las que puede llegar la pieza de la casilla (sin revisar jaques ni enroque)
+    public static long destinos(Posicion pos, int casilla) {
+        int pieza = pos.piezaEn(casilla);
+        if (pieza == Posicion.VACIA) {
+            return 0L;
+        }
+
+        int tipo = Posicion.tipoDe(pieza);
+        int color = Posicion.colorDe(pieza);
+
+        if (tipo == Posicion.PEON) {
+            return destinosPeon(pos, color, casilla);
+        }
+        // No puede capturar piezas propias
+        return Ataques.dePieza(tipo, casilla, pos.ocupacion()) & ~pos.ocupacion(color);
+    }
+
+    // Avances y capturas diagonales del peón, considerando el avance doble inicial
+    private static long destinosPeon(Posicion pos, int color, int casilla) {
+        long libres = ~pos.ocupacion();
+        long capturas = Ataques.peon(color, casilla) & pos.ocupacion(color ^ 1);
+        long avance;
+
+        if (color == Posicion.BLANCO) {
+            // Movimiento hacia arriba (fila disminuye)
+            avance = (Posicion.bit(casilla) >>> 8) & libres;
+            if (Posicion.fila(casilla) == 6) {
+                avance |= (avance >>> 8) & libres;
+            }
+        } else {
+            // Movimiento hacia abajo (fila aumenta)
+            avance = (Posicion.bit(casilla) << 8) & libres;
+            if (Posicion.fila(casilla) == 1) {
+                avance |= (avance << 8) & libres;
+            }
+        }
+
+        return avance | capturas;
+    }
+
+    // Verifica si alguna pieza contraria puede atacar al rey del color indicado
+    public static boolean estaEnJaque(Posicion pos, int colorRey) {
+        int rey = pos.casillaRey(colorRey);
+        if (rey == -1) return true;
+
+        return Ataques.casillaAtacada(pos, rey, colorRey ^ 1);
+    }
+}
@@ -0,0 +1,72 @@
+public class Zobrist {
+
+    // Números aleatorios fijos: uno por pieza y casilla, por combinación de enroques,
+    // por columna de captura al paso y uno para el turno de las negras
+    static final long[][] PIEZA = new long[12][64];
+    static final long[] ENROQUE = new long[16];
+    static final long[] AL_PASO = new long[8];
+    static final long TURNO;
+
+    // Igual que PIEZA pero solo para peones (cero en el resto): clave de la estructura de peones
+    static final long[][] PEON = new long[12][64];
+
+    static {
+        long semilla = 0x9E3779B97F4A7C15L;
+        for (int p = 0; p < 12; p++) {
+            for (int c = 0; c < 64; c++) {
+                semilla += 0x9E3779B97F4A7C15L;
+                PIEZA[p][c] = mezclar(semilla);
+            }
+        }
+        for (int i = 0; i < 16; i++) {
+            semilla += 0x9E3779B97F4A7C15L;
+            ENROQUE[i] = mezclar(semilla);
+        }
+        ENROQUE[0] = 0L; // Sin derechos de enroque no se altera la clave
+        for (int i = 0; i < 8; i++) {
+            semilla += 0x9E3779B97F4A7C15L;
+            AL_PASO[i] = mezclar(semilla);
+        }
+        semilla += 0x9E3779B97F4A7C15L;
+        TURNO = mezclar(semilla);
+        PEON[Posicion.pieza(Posicion.BLANCO, Posicion.PEON)] = PIEZA[Posicion.pieza(Posicion.BLANCO, Posicion.PEON)];
+        PEON[Posicion.pieza(Posicion.NEGRO, Posicion.PEON)] = PIEZA[Posicion.pieza(Posicion.NEGRO, Posicion.PEON)];
+    }
+
+    // Función de mezcla de SplitMix64
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Calcula la clave desde cero; la posición la mantiene de forma incremental y esto sirve para verificarla
+    public static long calcular(Posicion pos) {
+        long clave = 0L;
+        for (int c = 0; c < 64; c++) {
+            int pieza = pos.piezaEn(c);
+            if (pieza != Posicion.VACIA) {
+                clave ^= PIEZA[pieza][c];
+            }
+        }
+        clave ^= ENROQUE[pos.enroques()];
+        if (pos.casillaAlPaso() != -1) {
+            clave ^= AL_PASO[Posicion.columna(pos.casillaAlPaso())];
+        }
+        if (pos.turno() == Posicion.NEGRO) {
+            clave ^= TURNO;
+        }
+        return clave;
+    }
+
+    public static long calcularPeones(Posicion pos) {
+        long clave = 0L;
+        for (int c = 0; c < 64; c++) {
+            int pieza = pos.piezaEn(c);
+            if (pieza != Posicion.VACIA) {
+                clave ^= PEON[pieza][c];
+            }
+        }
+        return clave;
+    }
+}